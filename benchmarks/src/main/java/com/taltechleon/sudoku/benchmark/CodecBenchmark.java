@@ -0,0 +1,64 @@
+package com.taltechleon.sudoku.benchmark;
+
+import com.taltechleon.sudoku.io.GridCodec;
+import com.taltechleon.sudoku.model.SudokuModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+    private final SudokuModel model = new SudokuModel(3, 3);
+    private final GridCodec codec = new GridCodec(3, 3);
+    private String text;
+    private byte[] cells;
+    private final byte[] decoded = new byte[81];
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        this.model.loadFromText(Puzzles.HARD.getText());
+        this.text = this.model.cellsAsText();
+        this.cells = this.model.cellsAsArray();
+        this.buffer = ByteBuffer.allocate(this.codec.getPackedSize());
+        this.codec.writePacked(this.cells, this.buffer);
+    }
+
+    @Benchmark
+    public SudokuModel loadFromText() {
+        this.model.loadFromText(this.text);
+        return this.model;
+    }
+
+    @Benchmark
+    public String cellsAsText() {
+        return this.model.cellsAsText();
+    }
+
+    @Benchmark
+    public ByteBuffer writePacked() {
+        this.codec.writePacked(this.cells, this.buffer.clear());
+        return this.buffer;
+    }
+
+    @Benchmark
+    public byte[] readPacked() {
+        this.codec.readPacked(this.buffer.clear(), this.decoded);
+        return this.decoded;
+    }
+}
@@ -0,0 +1,37 @@
+package com.taltechleon.sudoku.benchmark;
+
+import com.taltechleon.sudoku.model.SudokuModel;
+import com.taltechleon.sudoku.pool.Difficulty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+    @Param({"EXTREMELY_EASY", "EASY", "MEDIUM", "DIFFICULT", "EVIL"})
+    private Difficulty difficulty;
+
+    private final SudokuModel model = new SudokuModel(3, 3);
+    // seeded sequence keeps runs comparable
+    private long index;
+
+    @Benchmark
+    public SudokuModel generate() {
+        this.model.generate(this.difficulty.getClues(), SudokuModel.puzzleSeed(0L, this.index++));
+        return this.model;
+    }
+}
@@ -0,0 +1,70 @@
+package com.taltechleon.sudoku.benchmark;
+
+import com.taltechleon.sudoku.model.SudokuModel;
+
+/**
+ * Fixed inputs of benchmarks, so results of different runs can be compared.
+ */
+public enum Puzzles {
+    EASY("""
+            53..7....
+            6..195...
+            .98....6.
+            8...6...3
+            4..8.3..1
+            7...2...6
+            .6....28.
+            ...419..5
+            ....8..79
+            """),
+    // Arto Inkala puzzle, needs a lot of guessing
+    HARD("""
+            8........
+            ..36.....
+            .7..9.2..
+            .5...7...
+            ....457..
+            ...1...3.
+            ..1....68
+            ..85...1.
+            .9....4..
+            """),
+    MINIMAL_17("""
+            .......1.
+            4........
+            .2.......
+            ....5.4.7
+            ..8...3..
+            ..1.9....
+            3..4..2..
+            .5.1.....
+            ...8.6...
+            """),
+    MULTIPLE_SOLUTIONS("""
+            1........
+            ....2....
+            ........3
+            .4.......
+            ......5..
+            ..6......
+            .......7.
+            ...8.....
+            .....9...
+            """);
+
+    private final String text;
+
+    Puzzles(final String text) {
+        this.text = text;
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    public SudokuModel makeModel() {
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.loadFromText(this.text);
+        return model;
+    }
+}
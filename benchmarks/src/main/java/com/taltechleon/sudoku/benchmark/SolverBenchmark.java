@@ -0,0 +1,52 @@
+package com.taltechleon.sudoku.benchmark;
+
+import com.taltechleon.sudoku.model.SudokuModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+    @Param({"EASY", "HARD", "MINIMAL_17", "MULTIPLE_SOLUTIONS"})
+    private Puzzles puzzle;
+
+    @Param({"CONSTRAINT_PROPAGATION", "BIT_MASK", "DANCING_LINKS"})
+    private SudokuModel.SolverEngine engine;
+
+    private SudokuModel model;
+    private final byte[] solution = new byte[81];
+
+    @Setup
+    public void setup() {
+        this.model = this.puzzle.makeModel();
+    }
+
+    // uniqueness check, the same call as in the UI
+    @Benchmark
+    public Set<SudokuModel> solve() {
+        return this.model.solve(2, this.engine, s -> {
+        });
+    }
+
+    // allocation free path, the engine parameter is not used
+    @Benchmark
+    public int solveInto() {
+        return this.model.solveInto(2, this.solution);
+    }
+}
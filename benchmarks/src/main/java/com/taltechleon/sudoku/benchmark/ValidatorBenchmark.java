@@ -0,0 +1,65 @@
+package com.taltechleon.sudoku.benchmark;
+
+import com.taltechleon.sudoku.model.SudokuModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+    @Param({"PUZZLE", "SOLVED", "WITH_ERRORS"})
+    private Field field;
+
+    private SudokuModel model;
+
+    @Setup
+    public void setup() {
+        this.model = Puzzles.EASY.makeModel();
+        if (this.field != Field.PUZZLE) {
+            this.model = this.model.solve(1).iterator().next();
+        }
+        if (this.field == Field.WITH_ERRORS) {
+            // swap two values in a row, their columns and sub-fields get duplicates
+            final int first = this.model.getCellValue(0, 0);
+            this.model.setCellValue(0, 0, this.model.getCellValue(4, 0));
+            this.model.setCellValue(4, 0, first);
+        }
+    }
+
+    @Benchmark
+    public List<SudokuModel.Error> findErrors() {
+        return this.model.findErrors();
+    }
+
+    @Benchmark
+    public boolean isCorrectlyFilled() {
+        return this.model.isCorrectlyFilled();
+    }
+
+    @Benchmark
+    public List<SudokuModel.CellVariant> findCurrentVariantsAndSortThem() {
+        return this.model.findCurrentVariantsAndSortThem();
+    }
+
+    public enum Field {
+        PUZZLE,
+        SOLVED,
+        WITH_ERRORS
+    }
+}
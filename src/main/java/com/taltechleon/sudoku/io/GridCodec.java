@@ -0,0 +1,140 @@
+package com.taltechleon.sudoku.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary forms of a field. Packed form keeps every cell in ceil(log2(edgeSize + 1)) bits, so 9x9
+ * field takes 41 bytes. Clue form keeps bitmap of filled cells followed by values of filled cells
+ * only, it is smaller for puzzles with few clues. Bits are written from the lowest one.
+ */
+public final class GridCodec {
+    private final int edgeSize;
+    private final int totalCells;
+    private final int bitsPerCell;
+    private final int bitsPerClue;
+    private final int packedSize;
+    private final int bitmapSize;
+
+    public GridCodec(final int subFieldSize, final int subFields) {
+        this.edgeSize = subFieldSize * subFields;
+        this.totalCells = this.edgeSize * this.edgeSize;
+        if (this.edgeSize < 2 || this.edgeSize > 255) {
+            throw new IllegalArgumentException("Unsupported edge size: " + this.edgeSize);
+        }
+        this.bitsPerCell = 32 - Integer.numberOfLeadingZeros(this.edgeSize);
+        this.bitsPerClue = 32 - Integer.numberOfLeadingZeros(this.edgeSize - 1);
+        this.packedSize = (this.totalCells * this.bitsPerCell + 7) / 8;
+        this.bitmapSize = (this.totalCells + 7) / 8;
+    }
+
+    public int getPackedSize() {
+        return this.packedSize;
+    }
+
+    public int getCluesSize(final byte[] cells) {
+        this.checkCells(cells);
+        int clues = 0;
+        for (final byte cell : cells) {
+            if (cell != 0) {
+                clues++;
+            }
+        }
+        return this.bitmapSize + (clues * this.bitsPerClue + 7) / 8;
+    }
+
+    private void checkCells(final byte[] cells) {
+        if (cells.length != this.totalCells) {
+            throw new IllegalArgumentException(
+                    "Unexpected data size: " + this.totalCells + " <> " + cells.length);
+        }
+    }
+
+    private int checkValue(final int value) {
+        if (value > this.edgeSize) {
+            throw new IllegalArgumentException("Value must be in 0.." + this.edgeSize + ": " + value);
+        }
+        return value;
+    }
+
+    public void writePacked(final byte[] cells, final ByteBuffer buffer) {
+        this.checkCells(cells);
+        long accumulator = 0L;
+        int bits = 0;
+        for (final byte cell : cells) {
+            accumulator |= (long) this.checkValue(cell & 0xFF) << bits;
+            bits += this.bitsPerCell;
+            for (; bits >= 8; bits -= 8, accumulator >>>= 8) {
+                buffer.put((byte) accumulator);
+            }
+        }
+        if (bits > 0) {
+            buffer.put((byte) accumulator);
+        }
+    }
+
+    public void readPacked(final ByteBuffer buffer, final byte[] cells) {
+        this.checkCells(cells);
+        final int mask = (1 << this.bitsPerCell) - 1;
+        long accumulator = 0L;
+        int bits = 0;
+        for (int offset = 0; offset < this.totalCells; offset++) {
+            for (; bits < this.bitsPerCell; bits += 8) {
+                accumulator |= (buffer.get() & 0xFFL) << bits;
+            }
+            cells[offset] = (byte) this.checkValue((int) accumulator & mask);
+            accumulator >>>= this.bitsPerCell;
+            bits -= this.bitsPerCell;
+        }
+    }
+
+    public void writeClues(final byte[] cells, final ByteBuffer buffer) {
+        this.checkCells(cells);
+        for (int offset = 0; offset < this.totalCells; offset += 8) {
+            int bitmap = 0;
+            for (int i = 0; i < 8 && offset + i < this.totalCells; i++) {
+                if (cells[offset + i] != 0) {
+                    bitmap |= 1 << i;
+                }
+            }
+            buffer.put((byte) bitmap);
+        }
+
+        long accumulator = 0L;
+        int bits = 0;
+        for (final byte cell : cells) {
+            final int value = this.checkValue(cell & 0xFF);
+            if (value != 0) {
+                accumulator |= (long) (value - 1) << bits;
+                bits += this.bitsPerClue;
+                for (; bits >= 8; bits -= 8, accumulator >>>= 8) {
+                    buffer.put((byte) accumulator);
+                }
+            }
+        }
+        if (bits > 0) {
+            buffer.put((byte) accumulator);
+        }
+    }
+
+    public void readClues(final ByteBuffer buffer, final byte[] cells) {
+        this.checkCells(cells);
+        final int bitmapStart = buffer.position();
+        buffer.position(bitmapStart + this.bitmapSize);
+
+        final int mask = (1 << this.bitsPerClue) - 1;
+        long accumulator = 0L;
+        int bits = 0;
+        for (int offset = 0; offset < this.totalCells; offset++) {
+            if ((buffer.get(bitmapStart + (offset >>> 3)) & (1 << (offset & 7))) == 0) {
+                cells[offset] = 0;
+                continue;
+            }
+            for (; bits < this.bitsPerClue; bits += 8) {
+                accumulator |= (buffer.get() & 0xFFL) << bits;
+            }
+            cells[offset] = (byte) this.checkValue(((int) accumulator & mask) + 1);
+            accumulator >>>= this.bitsPerClue;
+            bits -= this.bitsPerClue;
+        }
+    }
+}
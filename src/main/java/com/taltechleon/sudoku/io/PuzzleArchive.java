@@ -0,0 +1,132 @@
+package com.taltechleon.sudoku.io;
+
+import com.taltechleon.sudoku.pool.Difficulty;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read only archive of fixed size puzzle records mapped into memory, see {@link PuzzleArchiveWriter}.
+ * Any record can be read by index without parsing, archives bigger than 2 GB are mapped by several
+ * segments. Mapping is released by GC, reads are thread safe.
+ */
+public final class PuzzleArchive {
+    static final int MAGIC = 0x53504152;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int SIZE_OFFSET = 12;
+    static final int FLAG_SOLUTIONS = 1;
+
+    private final int subFieldSize;
+    private final int subFields;
+    private final boolean withSolutions;
+    private final int recordSize;
+    private final long size;
+    private final GridCodec codec;
+    private final int recordsPerSegment;
+    private final MappedByteBuffer[] segments;
+
+    public PuzzleArchive(final Path file) throws IOException {
+        this(file, Integer.MAX_VALUE);
+    }
+
+    public PuzzleArchive(final Path file, final int maxSegmentSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new EOFException("Too short archive header: " + file);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a puzzle archive: " + file);
+            }
+            final int version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported archive version: " + version);
+            }
+            this.subFieldSize = header.get();
+            this.subFields = header.get();
+            this.withSolutions = (header.get() & FLAG_SOLUTIONS) != 0;
+            header.get();
+            this.recordSize = header.getShort() & 0xFFFF;
+            this.size = header.getLong();
+
+            this.codec = new GridCodec(this.subFieldSize, this.subFields);
+            if (this.recordSize != recordSize(this.codec, this.withSolutions)) {
+                throw new IOException("Unexpected record size: " + this.recordSize);
+            }
+            if (channel.size() < HEADER_SIZE + this.size * this.recordSize) {
+                throw new EOFException("Archive is truncated: " + file);
+            }
+
+            this.recordsPerSegment = Math.max(1, maxSegmentSize / this.recordSize);
+            this.segments = new MappedByteBuffer[(int) ((this.size + this.recordsPerSegment - 1) / this.recordsPerSegment)];
+            for (int i = 0; i < this.segments.length; i++) {
+                final long firstRecord = (long) i * this.recordsPerSegment;
+                final long records = Math.min(this.recordsPerSegment, this.size - firstRecord);
+                this.segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + firstRecord * this.recordSize, records * this.recordSize);
+            }
+        }
+    }
+
+    static int recordSize(final GridCodec codec, final boolean withSolutions) {
+        // puzzle, optional solution, difficulty and number of clues
+        return codec.getPackedSize() * (withSolutions ? 2 : 1) + 1 + 2;
+    }
+
+    private ByteBuffer record(final long index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of 0.." + (this.size - 1));
+        }
+        final int position = (int) (index % this.recordsPerSegment) * this.recordSize;
+        return this.segments[(int) (index / this.recordsPerSegment)].slice(position, this.recordSize);
+    }
+
+    public long size() {
+        return this.size;
+    }
+
+    public int getSubFieldSize() {
+        return this.subFieldSize;
+    }
+
+    public int getSubFields() {
+        return this.subFields;
+    }
+
+    public boolean hasSolutions() {
+        return this.withSolutions;
+    }
+
+    public void readPuzzle(final long index, final byte[] cells) {
+        this.codec.readPacked(this.record(index), cells);
+    }
+
+    // false if the archive doesn't contain solutions
+    public boolean readSolution(final long index, final byte[] cells) {
+        if (!this.withSolutions) {
+            return false;
+        }
+        this.codec.readPacked(this.record(index).position(this.codec.getPackedSize()), cells);
+        return true;
+    }
+
+    // null if difficulty is unknown
+    public Difficulty getDifficulty(final long index) {
+        final ByteBuffer record = this.record(index);
+        final int value = record.get(this.recordSize - 3) & 0xFF;
+        return value == 0 ? null : Difficulty.values()[value - 1];
+    }
+
+    public int getClues(final long index) {
+        return this.record(index).getShort(this.recordSize - 2) & 0xFFFF;
+    }
+}
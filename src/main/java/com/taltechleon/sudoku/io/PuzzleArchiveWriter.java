@@ -0,0 +1,98 @@
+package com.taltechleon.sudoku.io;
+
+import com.taltechleon.sudoku.pool.Difficulty;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes puzzle archive for {@link PuzzleArchive}, number of records is written into the header on close.
+ */
+public final class PuzzleArchiveWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final GridCodec codec;
+    private final boolean withSolutions;
+    private final int recordSize;
+    private final ByteBuffer buffer;
+    private long size;
+
+    public PuzzleArchiveWriter(final Path file, final int subFieldSize, final int subFields,
+                               final boolean withSolutions) throws IOException {
+        this.codec = new GridCodec(subFieldSize, subFields);
+        this.withSolutions = withSolutions;
+        this.recordSize = PuzzleArchive.recordSize(this.codec, withSolutions);
+        this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, this.recordSize));
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        this.buffer.putInt(PuzzleArchive.MAGIC)
+                .putShort((short) PuzzleArchive.VERSION)
+                .put((byte) subFieldSize)
+                .put((byte) subFields)
+                .put((byte) (withSolutions ? PuzzleArchive.FLAG_SOLUTIONS : 0))
+                .put((byte) 0)
+                .putShort((short) this.recordSize)
+                .putLong(0L);
+        this.buffer.position(PuzzleArchive.HEADER_SIZE);
+    }
+
+    // solution and difficulty can be null
+    public void append(final byte[] puzzle, final byte[] solution, final Difficulty difficulty)
+            throws IOException {
+        if (this.buffer.remaining() < this.recordSize) {
+            this.flush();
+        }
+        int clues = 0;
+        for (final byte cell : puzzle) {
+            if (cell != 0) {
+                clues++;
+            }
+        }
+        if (this.withSolutions && solution == null) {
+            throw new IllegalArgumentException("Archive requires solution for every puzzle");
+        }
+        final int recordStart = this.buffer.position();
+        try {
+            this.codec.writePacked(puzzle, this.buffer);
+            if (this.withSolutions) {
+                this.codec.writePacked(solution, this.buffer);
+            }
+        } catch (IllegalArgumentException ex) {
+            this.buffer.position(recordStart);
+            throw ex;
+        }
+        this.buffer.put((byte) (difficulty == null ? 0 : difficulty.ordinal() + 1))
+                .putShort((short) clues);
+        this.size++;
+    }
+
+    public long size() {
+        return this.size;
+    }
+
+    private void flush() throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+        this.buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.flush();
+            final ByteBuffer sizeField = ByteBuffer.allocate(Long.BYTES).putLong(0, this.size);
+            while (sizeField.hasRemaining()) {
+                this.channel.write(sizeField, PuzzleArchive.SIZE_OFFSET + sizeField.position());
+            }
+        } finally {
+            this.channel.close();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.taltechleon.sudoku.io;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streaming reader of one line puzzle formats, plain or gzipped. Every line is either a puzzle or
+ * a puzzle and its solution separated by comma (Kaggle CSV), one char per cell where '0' or '.' means
+ * empty cell and values after 9 are letters. Empty lines and lines started by '#' are skipped, the
+ * first wrong line is treated as header. Records are parsed straight from the byte buffer into
+ * reused arrays, so arrays returned by the reader are overwritten by the next record.
+ */
+public final class PuzzleReader implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int LINE_EOF = 0;
+    private static final int LINE_EMPTY = 1;
+    private static final int LINE_RECORD = 2;
+    private static final int LINE_WRONG = 3;
+
+    private final InputStream stream;
+    private final int edgeSize;
+    private final int totalCells;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private final byte[] puzzle;
+    private final byte[] solution;
+    private boolean solutionPresent;
+    private long lineNumber;
+    private long records;
+    private boolean headerSkipped;
+
+    public PuzzleReader(final InputStream stream, final int subFieldSize, final int subFields) throws IOException {
+        this.edgeSize = subFieldSize * subFields;
+        if (this.edgeSize > 35) {
+            throw new IllegalArgumentException("One char per cell allows edge size up to 35");
+        }
+        this.totalCells = this.edgeSize * this.edgeSize;
+        this.puzzle = new byte[this.totalCells];
+        this.solution = new byte[this.totalCells];
+
+        final BufferedInputStream buffered = new BufferedInputStream(stream);
+        buffered.mark(2);
+        final boolean gzipped = buffered.read() == 0x1F && buffered.read() == 0x8B;
+        buffered.reset();
+        this.stream = gzipped ? new GZIPInputStream(buffered, BUFFER_SIZE) : buffered;
+    }
+
+    private boolean fill() throws IOException {
+        final int read = this.stream.read(this.buffer);
+        if (read <= 0) {
+            return false;
+        }
+        this.position = 0;
+        this.limit = read;
+        return true;
+    }
+
+    private int valueOf(final byte chr) {
+        final int value;
+        if (chr == '.' || chr == '0') {
+            return 0;
+        } else if (chr >= '1' && chr <= '9') {
+            value = chr - '0';
+        } else if (chr >= 'A' && chr <= 'Z') {
+            value = chr - 'A' + 10;
+        } else if (chr >= 'a' && chr <= 'z') {
+            value = chr - 'a' + 10;
+        } else {
+            return -1;
+        }
+        return value > this.edgeSize ? -1 : value;
+    }
+
+    private int parseLine() throws IOException {
+        boolean anyChar = false;
+        boolean comment = false;
+        boolean wrong = false;
+        boolean secondPart = false;
+        int count = 0;
+        while (true) {
+            if (this.position == this.limit && !this.fill()) {
+                if (!anyChar) {
+                    return LINE_EOF;
+                }
+                break;
+            }
+            final byte chr = this.buffer[this.position++];
+            if (chr == '\n') {
+                break;
+            }
+            anyChar = true;
+            if (comment || wrong || chr == '\r' || chr == ' ' || chr == '\t') {
+                continue;
+            }
+            if (chr == '#' && count == 0 && !secondPart) {
+                comment = true;
+            } else if (chr == ',') {
+                if (secondPart || count != this.totalCells) {
+                    wrong = true;
+                }
+                secondPart = true;
+                count = 0;
+            } else {
+                final int value = this.valueOf(chr);
+                if (value < 0 || count == this.totalCells) {
+                    wrong = true;
+                } else {
+                    (secondPart ? this.solution : this.puzzle)[count++] = (byte) value;
+                }
+            }
+        }
+        this.lineNumber++;
+        if (comment || (!wrong && !secondPart && count == 0)) {
+            return LINE_EMPTY;
+        }
+        if (wrong || count != this.totalCells) {
+            return LINE_WRONG;
+        }
+        this.solutionPresent = secondPart;
+        return LINE_RECORD;
+    }
+
+    // false if end of stream, otherwise the next record is in puzzle and solution arrays
+    public boolean next() throws IOException {
+        while (true) {
+            switch (this.parseLine()) {
+                case LINE_EOF:
+                    return false;
+                case LINE_RECORD:
+                    this.records++;
+                    return true;
+                case LINE_WRONG: {
+                    if (this.records > 0 || this.headerSkipped) {
+                        throw new IOException("Wrong puzzle record at line " + this.lineNumber);
+                    }
+                    this.headerSkipped = true;
+                    break;
+                }
+                default:
+                    break;
+            }
+        }
+    }
+
+    public byte[] puzzle() {
+        return this.puzzle;
+    }
+
+    // valid only if current record has solution
+    public byte[] solution() {
+        return this.solution;
+    }
+
+    public boolean hasSolution() {
+        return this.solutionPresent;
+    }
+
+    public long getLineNumber() {
+        return this.lineNumber;
+    }
+
+    public long getRecords() {
+        return this.records;
+    }
+
+    // lazy view for pull based consumers like BatchSolver, returns the same reused array
+    public Iterator<byte[]> puzzles() {
+        return new Iterator<>() {
+            private boolean ready;
+            private boolean ended;
+
+            @Override
+            public boolean hasNext() {
+                if (!this.ready && !this.ended) {
+                    try {
+                        this.ready = PuzzleReader.this.next();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    this.ended = !this.ready;
+                }
+                return this.ready;
+            }
+
+            @Override
+            public byte[] next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                this.ready = false;
+                return PuzzleReader.this.puzzle;
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.stream.close();
+    }
+}
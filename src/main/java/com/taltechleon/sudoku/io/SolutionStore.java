@@ -0,0 +1,137 @@
+package com.taltechleon.sudoku.io;
+
+import com.taltechleon.sudoku.model.SudokuModel;
+import com.taltechleon.sudoku.util.LongHashSet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Append only store of packed fields outside of the java heap, big enumerations of solutions don't
+ * load GC. Records live in direct buffers or in segments of a memory mapped file, duplicates are
+ * detected by fingerprints in an open addressing table also kept in direct memory. Not thread safe.
+ */
+public final class SolutionStore implements AutoCloseable, Iterable<byte[]> {
+    private static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    private static final int INITIAL_FINGERPRINTS = 2048;
+
+    private final int totalCells;
+    private final GridCodec codec;
+    private final int recordSize;
+    private final int recordsPerSegment;
+    private final FileChannel channel;
+    private final LongHashSet fingerprints;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private long size;
+    private boolean closed;
+
+    // file can be null to keep records in direct memory, existing file is truncated
+    public SolutionStore(final int subFieldSize, final int subFields, final Path file, final boolean dedup) {
+        this(subFieldSize, subFields, file, dedup, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public SolutionStore(final int subFieldSize, final int subFields, final Path file, final boolean dedup,
+                         final int maxSegmentSize) {
+        final int edgeSize = subFieldSize * subFields;
+        this.totalCells = edgeSize * edgeSize;
+        this.codec = new GridCodec(subFieldSize, subFields);
+        this.recordSize = this.codec.getPackedSize();
+        this.recordsPerSegment = Math.max(1, maxSegmentSize / this.recordSize);
+        this.fingerprints = dedup ? new LongHashSet(INITIAL_FINGERPRINTS, LongHashSet.Storage.DIRECT) : null;
+        try {
+            this.channel = file == null ? null : FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Can't open solution store " + file, ex);
+        }
+    }
+
+    private ByteBuffer allocateSegment() {
+        final int bytes = this.recordsPerSegment * this.recordSize;
+        if (this.channel == null) {
+            return ByteBuffer.allocateDirect(bytes);
+        }
+        try {
+            return this.channel.map(FileChannel.MapMode.READ_WRITE, (long) this.segments.size() * bytes, bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Can't extend solution store", ex);
+        }
+    }
+
+    private ByteBuffer record(final long index) {
+        if (this.closed) {
+            // truncated file can't be accessed through old mappings
+            throw new IllegalStateException("Solution store is closed");
+        }
+        final int position = (int) (index % this.recordsPerSegment) * this.recordSize;
+        return this.segments.get((int) (index / this.recordsPerSegment)).slice(position, this.recordSize);
+    }
+
+    // returns false for a duplicate if dedup is on
+    public boolean add(final byte[] cells) {
+        if (cells.length != this.totalCells) {
+            throw new IllegalArgumentException("Unexpected data size: " + this.totalCells + " <> " + cells.length);
+        }
+        if (this.fingerprints != null && !this.fingerprints.add(SudokuModel.fingerprint(cells))) {
+            return false;
+        }
+        if (this.size == (long) this.segments.size() * this.recordsPerSegment) {
+            this.segments.add(this.allocateSegment());
+        }
+        this.codec.writePacked(cells, this.record(this.size));
+        this.size++;
+        return true;
+    }
+
+    public void read(final long index, final byte[] cells) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of 0.." + (this.size - 1));
+        }
+        this.codec.readPacked(this.record(index), cells);
+    }
+
+    public long size() {
+        return this.size;
+    }
+
+    // iterator reuses one buffer, a value must be copied if it is kept after the next call
+    @Override
+    public Iterator<byte[]> iterator() {
+        final byte[] cells = new byte[this.totalCells];
+        return new Iterator<>() {
+            private long index;
+
+            @Override
+            public boolean hasNext() {
+                return this.index < size;
+            }
+
+            @Override
+            public byte[] next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                read(this.index++, cells);
+                return cells;
+            }
+        };
+    }
+
+    // mapped segments are released by GC, file keeps only written records
+    @Override
+    public void close() throws IOException {
+        if (!this.closed && this.channel != null) {
+            this.channel.truncate(this.size * this.recordSize);
+            this.channel.close();
+        }
+        this.closed = true;
+    }
+}
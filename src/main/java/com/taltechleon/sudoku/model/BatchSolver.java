@@ -0,0 +1,155 @@
+package com.taltechleon.sudoku.model;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Solves stream of puzzles on a work-stealing pool, every pool thread reuses its own solver.
+ * Puzzles are read from the iterator lazily, no more than a few chunks per thread are in flight so
+ * big sources are not loaded into memory. Result consumer is called on the caller thread.
+ */
+public final class BatchSolver implements AutoCloseable {
+    private static final int CHUNK_SIZE = 256;
+    private static final int CHUNKS_IN_FLIGHT_PER_THREAD = 4;
+
+    private final int subFieldSize;
+    private final int subFields;
+    private final int limitSolutions;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<BitMaskSolver> solvers;
+
+    public BatchSolver(final int subFieldSize, final int subFields) {
+        this(subFieldSize, subFields, 2, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchSolver(final int subFieldSize, final int subFields, final int limitSolutions,
+                       final int parallelism) {
+        this.subFieldSize = subFieldSize;
+        this.subFields = subFields;
+        this.limitSolutions = limitSolutions;
+        this.pool = new ForkJoinPool(parallelism);
+        this.solvers = ThreadLocal.withInitial(() -> {
+            final BitMaskSolver solver = new BitMaskSolver(this.subFieldSize, this.subFields);
+            solver.setPropagation(Technique.CLAIMING);
+            return solver;
+        });
+    }
+
+    private int maxChunksInFlight() {
+        return this.pool.getParallelism() * CHUNKS_IN_FLIGHT_PER_THREAD;
+    }
+
+    private Chunk readChunk(final Iterator<byte[]> puzzles, final long firstIndex) {
+        final Chunk chunk = new Chunk(firstIndex);
+        while (chunk.size < CHUNK_SIZE && puzzles.hasNext()) {
+            // source can reuse its buffer so make own copy
+            chunk.puzzles[chunk.size++] = puzzles.next().clone();
+        }
+        return chunk.size == 0 ? null : chunk;
+    }
+
+    public void solveOrdered(final Iterator<byte[]> puzzles, final Consumer<Result> resultConsumer) {
+        final ArrayDeque<ForkJoinTask<Result[]>> inFlight = new ArrayDeque<>();
+        long index = 0L;
+        Chunk chunk;
+        while ((chunk = this.readChunk(puzzles, index)) != null) {
+            index += chunk.size;
+            inFlight.addLast(this.pool.submit(chunk::solve));
+            if (inFlight.size() >= this.maxChunksInFlight()) {
+                deliver(inFlight.removeFirst().join(), resultConsumer);
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            deliver(inFlight.removeFirst().join(), resultConsumer);
+        }
+    }
+
+    public void solveUnordered(final Iterator<byte[]> puzzles, final Consumer<Result> resultConsumer) {
+        final CompletionService<Result[]> completionService = new ExecutorCompletionService<>(this.pool);
+        int inFlight = 0;
+        long index = 0L;
+        try {
+            Chunk chunk;
+            while ((chunk = this.readChunk(puzzles, index)) != null) {
+                index += chunk.size;
+                completionService.submit(chunk::solve);
+                inFlight++;
+                if (inFlight >= this.maxChunksInFlight()) {
+                    deliver(completionService.take(), resultConsumer);
+                    inFlight--;
+                }
+            }
+            while (inFlight > 0) {
+                deliver(completionService.take(), resultConsumer);
+                inFlight--;
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted batch solving", ex);
+        }
+    }
+
+    private static void deliver(final Future<Result[]> future, final Consumer<Result> resultConsumer)
+            throws InterruptedException {
+        try {
+            deliver(future.get(), resultConsumer);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Error during batch solving", ex.getCause());
+        }
+    }
+
+    private static void deliver(final Result[] results, final Consumer<Result> resultConsumer) {
+        for (final Result result : results) {
+            resultConsumer.accept(result);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.pool.shutdown();
+    }
+
+    public record Result(long index, byte[] puzzle, byte[] solution, int solutions) {
+        public boolean isUnique() {
+            return this.solutions == 1;
+        }
+    }
+
+    private final class Chunk {
+        private final long firstIndex;
+        private final byte[][] puzzles = new byte[CHUNK_SIZE][];
+        private int size;
+
+        private Chunk(final long firstIndex) {
+            this.firstIndex = firstIndex;
+        }
+
+        private Result[] solve() {
+            final BitMaskSolver solver = solvers.get();
+            final Result[] results = new Result[this.size];
+            final byte[][] firstSolution = new byte[1][];
+            final Consumer<byte[]> solutionConsumer = cells -> {
+                if (firstSolution[0] == null) {
+                    firstSolution[0] = cells.clone();
+                }
+            };
+            for (int i = 0; i < this.size; i++) {
+                final byte[] puzzle = this.puzzles[i];
+                firstSolution[0] = null;
+                int solutions = 0;
+                if (solver.load(puzzle)) {
+                    solutions = solver.solve(limitSolutions, solutionConsumer);
+                }
+                results[i] = new Result(this.firstIndex + i, puzzle, firstSolution[0], solutions);
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,658 @@
+package com.taltechleon.sudoku.model;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+public final class BitMaskSolver implements FieldSolver {
+    private static final int CONTRADICTION = -1;
+    private static final int NO_CHANGES = 0;
+    private static final int CHANGED = 1;
+    private static final int STOP_CHECK_PERIOD_MASK = 0xFF;
+
+    private final int subFieldSize;
+    private final int subFields;
+    private final int edgeSize;
+    private final int totalCells;
+    private final int allValuesMask;
+
+    private final int[] rowOfCell;
+    private final int[] colOfCell;
+    private final int[] subFieldOfCell;
+    private final int[] unitCells;
+
+    private final byte[] cells;
+    private final int[] rowValues;
+    private final int[] colValues;
+    private final int[] subFieldValues;
+
+    private final int[] emptyCells;
+    private final int[] emptyCellIndex;
+    private int emptyCount;
+
+    private final int[] excludedValues;
+    private final int[] placedTrail;
+    private int placedCount;
+    private final int[] exclusionTrailOffsets;
+    private final int[] exclusionTrailValues;
+    private int exclusionCount;
+
+    private final int[] lineCandidates;
+    private final int[] crossLineCandidates;
+    private final int[] valuePositions;
+    private Technique propagation;
+
+    private boolean loaded;
+    private int limitSolutions;
+    private int foundSolutions;
+    private Consumer<byte[]> solutionConsumer;
+    private byte[] solutionBuffer;
+    private BooleanSupplier stopCondition;
+    private int nodeCounter;
+
+    private SolverStatistics statistics;
+    private long searchNodes;
+    private long searchBacktracks;
+    private long searchGuesses;
+    private long searchEliminations;
+    private int searchMaxDepth;
+    private int searchDepthOffset;
+
+    public BitMaskSolver(final int subFieldSize, final int subFields) {
+        this.subFieldSize = subFieldSize;
+        this.subFields = subFields;
+        this.edgeSize = subFieldSize * subFields;
+        this.totalCells = this.edgeSize * this.edgeSize;
+
+        if (this.edgeSize > 32) {
+            throw new IllegalArgumentException("Too big number of variants, rework needed");
+        }
+        this.allValuesMask = this.edgeSize == 32 ? -1 : (1 << this.edgeSize) - 1;
+
+        this.rowOfCell = new int[this.totalCells];
+        this.colOfCell = new int[this.totalCells];
+        this.subFieldOfCell = new int[this.totalCells];
+        for (int offset = 0; offset < this.totalCells; offset++) {
+            final int col = offset % this.edgeSize;
+            final int row = offset / this.edgeSize;
+            this.rowOfCell[offset] = row;
+            this.colOfCell[offset] = col;
+            this.subFieldOfCell[offset] =
+                    (row / this.subFieldSize) * this.subFields + col / this.subFieldSize;
+        }
+
+        this.cells = new byte[this.totalCells];
+        this.rowValues = new int[this.edgeSize];
+        this.colValues = new int[this.edgeSize];
+        this.subFieldValues = new int[this.edgeSize];
+        this.emptyCells = new int[this.totalCells];
+        this.emptyCellIndex = new int[this.totalCells];
+
+        // rows, columns and sub-fields
+        this.unitCells = new int[this.totalCells * 3];
+        for (int offset = 0; offset < this.totalCells; offset++) {
+            final int row = this.rowOfCell[offset];
+            final int col = this.colOfCell[offset];
+            final int subField = this.subFieldOfCell[offset];
+            final int indexInSubField =
+                    (row % this.subFieldSize) * this.subFieldSize + col % this.subFieldSize;
+            this.unitCells[row * this.edgeSize + col] = offset;
+            this.unitCells[(this.edgeSize + col) * this.edgeSize + row] = offset;
+            this.unitCells[(this.edgeSize * 2 + subField) * this.edgeSize + indexInSubField] = offset;
+        }
+
+        this.excludedValues = new int[this.totalCells];
+        this.placedTrail = new int[this.totalCells];
+        this.exclusionTrailOffsets = new int[this.totalCells * this.edgeSize];
+        this.exclusionTrailValues = new int[this.totalCells * this.edgeSize];
+
+        this.lineCandidates = new int[Math.max(this.subFieldSize, this.subFields)];
+        this.crossLineCandidates = new int[this.subFieldSize];
+        this.valuePositions = new int[this.edgeSize];
+    }
+
+    private static int bitOf(final int value) {
+        return 1 << (value - 1);
+    }
+
+    public int getEdgeSize() {
+        return this.edgeSize;
+    }
+
+    public int getTotalCells() {
+        return this.totalCells;
+    }
+
+    public int getSubFieldSize() {
+        return this.subFieldSize;
+    }
+
+    public int getSubFields() {
+        return this.subFields;
+    }
+
+    @Override
+    public boolean load(final byte[] field) {
+        if (field.length != this.totalCells) {
+            throw new IllegalArgumentException(
+                    "Unexpected data size: " + this.totalCells + " <> " + field.length);
+        }
+        Arrays.fill(this.rowValues, 0);
+        Arrays.fill(this.colValues, 0);
+        Arrays.fill(this.subFieldValues, 0);
+        Arrays.fill(this.excludedValues, 0);
+        this.emptyCount = 0;
+        this.placedCount = 0;
+        this.exclusionCount = 0;
+        this.loaded = false;
+
+        boolean correct = true;
+        for (int offset = 0; offset < this.totalCells; offset++) {
+            final int value = field[offset] & 0xFF;
+            this.cells[offset] = (byte) value;
+            if (value == 0) {
+                this.emptyCellIndex[offset] = this.emptyCount;
+                this.emptyCells[this.emptyCount++] = offset;
+            } else {
+                if (value > this.edgeSize) {
+                    throw new IllegalArgumentException(
+                            "Value must be in 0.." + this.edgeSize + ": " + value);
+                }
+                final int bit = bitOf(value);
+                final int row = this.rowOfCell[offset];
+                final int col = this.colOfCell[offset];
+                final int subField = this.subFieldOfCell[offset];
+                if (((this.rowValues[row] | this.colValues[col] | this.subFieldValues[subField]) & bit) != 0) {
+                    correct = false;
+                }
+                this.rowValues[row] |= bit;
+                this.colValues[col] |= bit;
+                this.subFieldValues[subField] |= bit;
+            }
+        }
+        this.loaded = correct;
+        return correct;
+    }
+
+    int candidates(final int offset) {
+        final int used = this.rowValues[this.rowOfCell[offset]]
+                | this.colValues[this.colOfCell[offset]]
+                | this.subFieldValues[this.subFieldOfCell[offset]];
+        return ~(used | this.excludedValues[offset]) & this.allValuesMask;
+    }
+
+    private void place(final int offset, final int value) {
+        final int bit = bitOf(value);
+        this.cells[offset] = (byte) value;
+        this.rowValues[this.rowOfCell[offset]] |= bit;
+        this.colValues[this.colOfCell[offset]] |= bit;
+        this.subFieldValues[this.subFieldOfCell[offset]] |= bit;
+
+        // move the cell to the first position after the live part of the empty cell list
+        final int index = this.emptyCellIndex[offset];
+        final int last = this.emptyCells[--this.emptyCount];
+        this.emptyCells[index] = last;
+        this.emptyCellIndex[last] = index;
+        this.emptyCells[this.emptyCount] = offset;
+        this.emptyCellIndex[offset] = this.emptyCount;
+    }
+
+    private void remove(final int offset) {
+        // works only in LIFO order to place, the cell is expected right after the live part of the list
+        final int bit = ~bitOf(this.cells[offset] & 0xFF);
+        this.cells[offset] = 0;
+        this.rowValues[this.rowOfCell[offset]] &= bit;
+        this.colValues[this.colOfCell[offset]] &= bit;
+        this.subFieldValues[this.subFieldOfCell[offset]] &= bit;
+        this.emptyCount++;
+    }
+
+    void assign(final int offset, final int value) {
+        this.place(offset, value);
+        this.placedTrail[this.placedCount++] = offset;
+    }
+
+    boolean exclude(final int offset, final int values) {
+        final int removed = values & this.candidates(offset);
+        if (removed == 0) {
+            return false;
+        }
+        this.excludedValues[offset] |= removed;
+        this.exclusionTrailOffsets[this.exclusionCount] = offset;
+        this.exclusionTrailValues[this.exclusionCount++] = removed;
+        return true;
+    }
+
+    int getPlacedMark() {
+        return this.placedCount;
+    }
+
+    int getExclusionMark() {
+        return this.exclusionCount;
+    }
+
+    void undoTo(final int placedMark, final int exclusionMark) {
+        while (this.placedCount > placedMark) {
+            this.remove(this.placedTrail[--this.placedCount]);
+        }
+        while (this.exclusionCount > exclusionMark) {
+            this.exclusionCount--;
+            this.excludedValues[this.exclusionTrailOffsets[this.exclusionCount]] &=
+                    ~this.exclusionTrailValues[this.exclusionCount];
+        }
+    }
+
+    int getEmptyCount() {
+        return this.emptyCount;
+    }
+
+    byte[] cells() {
+        return this.cells;
+    }
+
+    public Technique getPropagation() {
+        return this.propagation;
+    }
+
+    // null disables propagation, otherwise all techniques up to the provided one are in use
+    public void setPropagation(final Technique maxTechnique) {
+        this.propagation = maxTechnique;
+    }
+
+    @Override
+    public void setStopCondition(final BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    @Override
+    public void setStatistics(final SolverStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    // depth of the loaded field inside an outer search, so statistics of a subtree report full depth
+    void setSearchDepthOffset(final int depthOffset) {
+        this.searchDepthOffset = depthOffset;
+    }
+
+    boolean propagate() {
+        if (this.propagation == null) {
+            return true;
+        }
+        final int level = this.propagation.ordinal();
+        while (this.emptyCount > 0) {
+            int result = this.applyNakedSingles();
+            if (result == NO_CHANGES && level >= Technique.HIDDEN_SINGLE.ordinal()) {
+                result = this.applyHiddenSingles();
+            }
+            if (result == NO_CHANGES && level >= Technique.POINTING.ordinal()) {
+                result = this.applyPointing();
+            }
+            if (result == NO_CHANGES && level >= Technique.CLAIMING.ordinal()) {
+                result = this.applyClaiming();
+            }
+            if (result == NO_CHANGES && level >= Technique.NAKED_PAIR.ordinal()) {
+                result = this.applyNakedPairs();
+            }
+            if (result == NO_CHANGES && level >= Technique.HIDDEN_PAIR.ordinal()) {
+                result = this.applyHiddenPairs();
+            }
+            if (result == CONTRADICTION) {
+                return false;
+            }
+            if (result == NO_CHANGES) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    private int applyNakedSingles() {
+        int result = NO_CHANGES;
+        for (int i = this.emptyCount - 1; i >= 0; i--) {
+            final int offset = this.emptyCells[i];
+            final int candidates = this.candidates(offset);
+            if (candidates == 0) {
+                return CONTRADICTION;
+            }
+            if ((candidates & (candidates - 1)) == 0) {
+                this.assign(offset, Integer.numberOfTrailingZeros(candidates) + 1);
+                result = CHANGED;
+            }
+        }
+        return result;
+    }
+
+    private int applyHiddenSingles() {
+        int result = NO_CHANGES;
+        for (int unit = 0; unit < this.edgeSize * 3; unit++) {
+            final int unitStart = unit * this.edgeSize;
+            final int unitEnd = unitStart + this.edgeSize;
+            int once = 0;
+            int twice = 0;
+            int placed = 0;
+            for (int i = unitStart; i < unitEnd; i++) {
+                final int offset = this.unitCells[i];
+                final int value = this.cells[offset] & 0xFF;
+                if (value == 0) {
+                    final int candidates = this.candidates(offset);
+                    twice |= once & candidates;
+                    once |= candidates;
+                } else {
+                    placed |= bitOf(value);
+                }
+            }
+            if ((once | placed) != this.allValuesMask) {
+                return CONTRADICTION;
+            }
+            int singles = once & ~twice;
+            while (singles != 0) {
+                final int bit = singles & -singles;
+                singles ^= bit;
+                int target = -1;
+                for (int i = unitStart; i < unitEnd && target < 0; i++) {
+                    final int offset = this.unitCells[i];
+                    if (this.cells[offset] == 0 && (this.candidates(offset) & bit) != 0) {
+                        target = offset;
+                    }
+                }
+                if (target < 0) {
+                    // the only cell for the value has been filled by another value
+                    return CONTRADICTION;
+                }
+                this.assign(target, Integer.numberOfTrailingZeros(bit) + 1);
+                result = CHANGED;
+            }
+        }
+        return result;
+    }
+
+    private int applyPointing() {
+        int result = NO_CHANGES;
+        for (int subField = 0; subField < this.edgeSize; subField++) {
+            Arrays.fill(this.lineCandidates, 0);
+            Arrays.fill(this.crossLineCandidates, 0);
+            final int unitStart = (this.edgeSize * 2 + subField) * this.edgeSize;
+            for (int i = 0; i < this.edgeSize; i++) {
+                final int offset = this.unitCells[unitStart + i];
+                if (this.cells[offset] == 0) {
+                    final int candidates = this.candidates(offset);
+                    this.lineCandidates[i / this.subFieldSize] |= candidates;
+                    this.crossLineCandidates[i % this.subFieldSize] |= candidates;
+                }
+            }
+            final int firstRow = (subField / this.subFields) * this.subFieldSize;
+            final int firstCol = (subField % this.subFields) * this.subFieldSize;
+            for (int k = 0; k < this.subFieldSize; k++) {
+                final int onlyInRow = onlyInSlot(this.lineCandidates, k, this.subFieldSize);
+                if (onlyInRow != 0) {
+                    final int rowStart = (firstRow + k) * this.edgeSize;
+                    for (int col = 0; col < this.edgeSize; col++) {
+                        if ((col < firstCol || col >= firstCol + this.subFieldSize)
+                                && this.cells[rowStart + col] == 0
+                                && this.exclude(rowStart + col, onlyInRow)) {
+                            result = CHANGED;
+                        }
+                    }
+                }
+                final int onlyInCol = onlyInSlot(this.crossLineCandidates, k, this.subFieldSize);
+                if (onlyInCol != 0) {
+                    final int col = firstCol + k;
+                    for (int row = 0; row < this.edgeSize; row++) {
+                        final int offset = row * this.edgeSize + col;
+                        if ((row < firstRow || row >= firstRow + this.subFieldSize)
+                                && this.cells[offset] == 0
+                                && this.exclude(offset, onlyInCol)) {
+                            result = CHANGED;
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private int applyClaiming() {
+        int result = NO_CHANGES;
+        // rows and columns are first 2 * edgeSize units
+        for (int unit = 0; unit < this.edgeSize * 2; unit++) {
+            Arrays.fill(this.lineCandidates, 0, this.subFields, 0);
+            final int unitStart = unit * this.edgeSize;
+            for (int i = 0; i < this.edgeSize; i++) {
+                final int offset = this.unitCells[unitStart + i];
+                if (this.cells[offset] == 0) {
+                    this.lineCandidates[i / this.subFieldSize] |= this.candidates(offset);
+                }
+            }
+            for (int k = 0; k < this.subFields; k++) {
+                final int onlyInSubField = onlyInSlot(this.lineCandidates, k, this.subFields);
+                if (onlyInSubField != 0) {
+                    final int subField = this.subFieldOfCell[this.unitCells[unitStart + k * this.subFieldSize]];
+                    final int subFieldStart = (this.edgeSize * 2 + subField) * this.edgeSize;
+                    for (int i = subFieldStart; i < subFieldStart + this.edgeSize; i++) {
+                        final int offset = this.unitCells[i];
+                        final boolean sameLine = unit < this.edgeSize
+                                ? this.rowOfCell[offset] == unit
+                                : this.colOfCell[offset] == unit - this.edgeSize;
+                        if (!sameLine && this.cells[offset] == 0 && this.exclude(offset, onlyInSubField)) {
+                            result = CHANGED;
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int onlyInSlot(final int[] slots, final int slot, final int slotsNumber) {
+        int others = 0;
+        for (int i = 0; i < slotsNumber; i++) {
+            if (i != slot) {
+                others |= slots[i];
+            }
+        }
+        return slots[slot] & ~others;
+    }
+
+    private int applyNakedPairs() {
+        int result = NO_CHANGES;
+        for (int unit = 0; unit < this.edgeSize * 3; unit++) {
+            final int unitStart = unit * this.edgeSize;
+            final int unitEnd = unitStart + this.edgeSize;
+            for (int i = unitStart; i < unitEnd; i++) {
+                final int first = this.unitCells[i];
+                if (this.cells[first] != 0) {
+                    continue;
+                }
+                final int pair = this.candidates(first);
+                if (Integer.bitCount(pair) != 2) {
+                    continue;
+                }
+                for (int j = i + 1; j < unitEnd; j++) {
+                    final int second = this.unitCells[j];
+                    if (this.cells[second] == 0 && this.candidates(second) == pair) {
+                        for (int k = unitStart; k < unitEnd; k++) {
+                            final int offset = this.unitCells[k];
+                            if (offset != first && offset != second && this.cells[offset] == 0
+                                    && this.exclude(offset, pair)) {
+                                result = CHANGED;
+                            }
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private int applyHiddenPairs() {
+        int result = NO_CHANGES;
+        for (int unit = 0; unit < this.edgeSize * 3; unit++) {
+            final int unitStart = unit * this.edgeSize;
+            Arrays.fill(this.valuePositions, 0);
+            for (int i = 0; i < this.edgeSize; i++) {
+                final int offset = this.unitCells[unitStart + i];
+                if (this.cells[offset] == 0) {
+                    int candidates = this.candidates(offset);
+                    while (candidates != 0) {
+                        final int bit = candidates & -candidates;
+                        candidates ^= bit;
+                        this.valuePositions[Integer.numberOfTrailingZeros(bit)] |= 1 << i;
+                    }
+                }
+            }
+            for (int a = 0; a < this.edgeSize; a++) {
+                final int positions = this.valuePositions[a];
+                if (Integer.bitCount(positions) != 2) {
+                    continue;
+                }
+                for (int b = a + 1; b < this.edgeSize; b++) {
+                    if (this.valuePositions[b] == positions) {
+                        final int keep = (1 << a) | (1 << b);
+                        final int first = this.unitCells[unitStart + Integer.numberOfTrailingZeros(positions)];
+                        final int second =
+                                this.unitCells[unitStart + 31 - Integer.numberOfLeadingZeros(positions)];
+                        if (this.exclude(first, ~keep)) {
+                            result = CHANGED;
+                        }
+                        if (this.exclude(second, ~keep)) {
+                            result = CHANGED;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    // consumer gets the internal cell buffer, it must be copied if needed after the call
+    @Override
+    public int solve(final int limitSolutions, final Consumer<byte[]> solutionConsumer) {
+        this.solutionConsumer = solutionConsumer;
+        try {
+            return this.solve(limitSolutions);
+        } finally {
+            this.solutionConsumer = null;
+        }
+    }
+
+    // allocation free variant, the first found solution is copied into the buffer
+    public int solve(final int limitSolutions, final byte[] solutionBuffer) {
+        if (solutionBuffer.length != this.totalCells) {
+            throw new IllegalArgumentException(
+                    "Unexpected buffer size: " + this.totalCells + " <> " + solutionBuffer.length);
+        }
+        this.solutionBuffer = solutionBuffer;
+        try {
+            return this.solve(limitSolutions);
+        } finally {
+            this.solutionBuffer = null;
+        }
+    }
+
+    private int solve(final int limitSolutions) {
+        this.limitSolutions = limitSolutions;
+        this.foundSolutions = 0;
+        if (this.loaded) {
+            this.search(this.searchDepthOffset);
+        }
+        if (this.statistics != null) {
+            this.statistics.addSearch(this.searchNodes, this.searchBacktracks, this.searchGuesses,
+                    this.searchEliminations, this.searchMaxDepth);
+            this.searchNodes = 0L;
+            this.searchBacktracks = 0L;
+            this.searchGuesses = 0L;
+            this.searchEliminations = 0L;
+            this.searchMaxDepth = 0;
+        }
+        return this.foundSolutions;
+    }
+
+    private boolean onSolution() {
+        this.foundSolutions++;
+        if (this.solutionBuffer != null && this.foundSolutions == 1) {
+            System.arraycopy(this.cells, 0, this.solutionBuffer, 0, this.totalCells);
+        }
+        if (this.solutionConsumer != null) {
+            this.solutionConsumer.accept(this.cells);
+        }
+        return this.foundSolutions >= this.limitSolutions;
+    }
+
+    private boolean search(final int depth) {
+        final int placedMark = this.placedCount;
+        final int exclusionMark = this.exclusionCount;
+        final boolean stop = this.propagateAndBranch(depth);
+        this.undoTo(placedMark, exclusionMark);
+        return stop;
+    }
+
+    private boolean propagateAndBranch(final int depth) {
+        if ((++this.nodeCounter & STOP_CHECK_PERIOD_MASK) == 0
+                && this.stopCondition != null && this.stopCondition.getAsBoolean()) {
+            return true;
+        }
+
+        final int placedMark = this.placedCount;
+        final int exclusionMark = this.exclusionCount;
+        final boolean consistent = this.propagate();
+        if (this.statistics != null) {
+            this.countNode(depth, consistent, this.placedCount - placedMark + this.exclusionCount - exclusionMark);
+        }
+        if (!consistent) {
+            return false;
+        }
+
+        if (this.emptyCount == 0) {
+            return this.onSolution();
+        }
+
+        final int offset = this.findBranchCell();
+        int variants = offset < 0 ? 0 : this.candidates(offset);
+        if (variants == 0 && this.statistics != null) {
+            this.searchBacktracks++;
+        }
+        while (variants != 0) {
+            final int bit = variants & -variants;
+            variants ^= bit;
+            this.assign(offset, Integer.numberOfTrailingZeros(bit) + 1);
+            final boolean stop = this.search(depth + 1);
+            this.undoTo(this.placedCount - 1, this.exclusionCount);
+            if (stop) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void countNode(final int depth, final boolean consistent, final int eliminations) {
+        this.searchNodes++;
+        this.searchEliminations += eliminations;
+        this.searchMaxDepth = Math.max(this.searchMaxDepth, depth);
+        if (depth > 0) {
+            this.searchGuesses++;
+        }
+        if (!consistent) {
+            this.searchBacktracks++;
+        }
+    }
+
+    // empty cell with minimal number of candidates, negative if there is no empty cell
+    int findBranchCell() {
+        int bestOffset = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int i = 0; i < this.emptyCount; i++) {
+            final int offset = this.emptyCells[i];
+            final int count = Integer.bitCount(this.candidates(offset));
+            if (count < bestCount) {
+                bestCount = count;
+                bestOffset = offset;
+                if (count <= 1) {
+                    break;
+                }
+            }
+        }
+        return bestOffset;
+    }
+}
@@ -0,0 +1,670 @@
+package com.taltechleon.sudoku.model;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Canonical form of a field over all validity preserving transformations: band and stack
+ * permutations, row permutations inside bands, column permutations inside stacks, transposition and
+ * relabeling of values. Rows, columns, bands and stacks get keys which don't change under the
+ * transformations, they are placed in key order and only lines with equal keys are searched
+ * for the minimal lexicographic form (empty cell is the smallest value, values are labeled in order of
+ * appearance). So the result is the same for all isomorphic fields but it is not the classic minlex
+ * form. Only lines giving the smallest next value or row are followed and interchangeable empty lines,
+ * bands and stacks are tried once, so sparse fields are cheap. Solved grids have many equal keys and
+ * still take much more time than puzzles, the search is bounded by node budget and a field exceeding
+ * it has no canonical form. An optional stop condition is polled during the search and also ends it
+ * without result. Instances keep working buffers and are not thread safe.
+ */
+public final class Canonicalizer {
+    private static final byte UNKNOWN = Byte.MAX_VALUE;
+    // solved grids take up to a few thousand nodes, sparse fields and puzzles much less
+    public static final long DEFAULT_NODE_BUDGET = 200_000L;
+    private static final long STOP_CHECK_NODES = 1024L;
+
+    private final int subFieldSize;
+    private final int edgeSize;
+    private final int totalCells;
+
+    private final byte[] source;
+    private final byte[] current;
+    private final byte[] best;
+    private int lessPosition;
+
+    private final int[] rowOrder;
+    private final int[] colOrder;
+    private final boolean[] usedRows;
+    private final boolean[] usedCols;
+    private final boolean[] usedBands;
+    private final boolean[] usedStacks;
+    private final int[] labels;
+    private final int[] labelTrail;
+    private int labelCount;
+
+    private boolean transposed;
+    private boolean bestTransposed;
+    private final int[] bestRowOrder;
+    private final int[] bestColOrder;
+    private final int[] bestLabels;
+
+    private final long[] rowKeys;
+    private final long[] colKeys;
+    private final long[] bandKeys;
+    private final long[] stackKeys;
+    private final long[] orientationKeys;
+    private final int[] rowCounts;
+    private final int[] colCounts;
+    private final int[] boxCounts;
+    private final int[] valueCounts;
+    private final int[] rowSegments;
+    private final int[] colSegments;
+    private final long[] cellKeys;
+    private final long[] previousRowKeys;
+    private final long[] previousColKeys;
+
+    private final boolean[] emptyRows;
+    private final boolean[] emptyCols;
+    private final boolean[] emptyBands;
+    private final boolean[] emptyStacks;
+    private final int[][] rowCandidates;
+    private final int[][] colCandidates;
+    private final int[] formLabels;
+    private final byte[] minForm;
+
+    private final long nodeBudget;
+    private long nodes;
+    private BooleanSupplier stopCondition;
+    private long nextStopCheck;
+    private boolean stopped;
+
+    public Canonicalizer(final int subFieldSize, final int subFields) {
+        this(subFieldSize, subFields, DEFAULT_NODE_BUDGET);
+    }
+
+    public Canonicalizer(final int subFieldSize, final int subFields, final long nodeBudget) {
+        if (nodeBudget <= 0L) {
+            throw new IllegalArgumentException("Node budget must be positive: " + nodeBudget);
+        }
+        this.nodeBudget = nodeBudget;
+        if (subFieldSize != subFields) {
+            throw new IllegalArgumentException("Only square sub-fields are supported");
+        }
+        this.subFieldSize = subFieldSize;
+        this.edgeSize = subFieldSize * subFields;
+        if (this.edgeSize > 9) {
+            // search space grows too fast for bigger fields
+            throw new IllegalArgumentException("Supported edge size up to 9: " + this.edgeSize);
+        }
+        this.totalCells = this.edgeSize * this.edgeSize;
+
+        this.source = new byte[this.totalCells];
+        this.current = new byte[this.totalCells];
+        this.best = new byte[this.totalCells];
+        this.rowOrder = new int[this.edgeSize];
+        this.colOrder = new int[this.edgeSize];
+        this.usedRows = new boolean[this.edgeSize];
+        this.usedCols = new boolean[this.edgeSize];
+        this.usedBands = new boolean[subFields];
+        this.usedStacks = new boolean[subFields];
+        this.labels = new int[this.edgeSize + 1];
+        this.labelTrail = new int[this.edgeSize];
+        this.bestRowOrder = new int[this.edgeSize];
+        this.bestColOrder = new int[this.edgeSize];
+        this.bestLabels = new int[this.edgeSize + 1];
+
+        this.rowKeys = new long[this.edgeSize];
+        this.colKeys = new long[this.edgeSize];
+        this.bandKeys = new long[subFields];
+        this.stackKeys = new long[subFields];
+        this.orientationKeys = new long[2];
+        this.rowCounts = new int[this.edgeSize];
+        this.colCounts = new int[this.edgeSize];
+        this.boxCounts = new int[this.edgeSize];
+        this.valueCounts = new int[this.edgeSize + 1];
+        this.rowSegments = new int[this.edgeSize * subFields];
+        this.colSegments = new int[this.edgeSize * subFields];
+        this.cellKeys = new long[this.totalCells];
+        this.previousRowKeys = new long[this.edgeSize];
+        this.previousColKeys = new long[this.edgeSize];
+
+        this.emptyRows = new boolean[this.edgeSize];
+        this.emptyCols = new boolean[this.edgeSize];
+        this.emptyBands = new boolean[subFields];
+        this.emptyStacks = new boolean[subFields];
+        this.rowCandidates = new int[this.edgeSize][this.edgeSize];
+        this.colCandidates = new int[this.edgeSize][this.edgeSize];
+        this.formLabels = new int[this.edgeSize + 1];
+        this.minForm = new byte[this.edgeSize];
+    }
+
+    private static long mix(long value) {
+        // murmur3 finalizer
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private int boxOf(final int row, final int col) {
+        return row / this.subFieldSize * this.subFieldSize + col / this.subFieldSize;
+    }
+
+    private void loadSource(final byte[] cells, final boolean transpose) {
+        for (int row = 0; row < this.edgeSize; row++) {
+            for (int col = 0; col < this.edgeSize; col++) {
+                final int value = cells[transpose ? col * this.edgeSize + row : row * this.edgeSize + col];
+                if (value < 0 || value > this.edgeSize) {
+                    throw new IllegalArgumentException("Value must be in 0.." + this.edgeSize + ": " + value);
+                }
+                this.source[row * this.edgeSize + col] = (byte) value;
+            }
+        }
+    }
+
+    // keys depend only on counts of clues and values so every transformation just moves them around
+    private void computeKeys() {
+        Arrays.fill(this.rowCounts, 0);
+        Arrays.fill(this.colCounts, 0);
+        Arrays.fill(this.boxCounts, 0);
+        Arrays.fill(this.valueCounts, 0);
+        Arrays.fill(this.rowSegments, 0);
+        Arrays.fill(this.colSegments, 0);
+        final int segments = this.usedStacks.length;
+        for (int offset = 0; offset < this.totalCells; offset++) {
+            final int value = this.source[offset];
+            if (value != 0) {
+                final int row = offset / this.edgeSize;
+                final int col = offset % this.edgeSize;
+                this.rowCounts[row]++;
+                this.colCounts[col]++;
+                this.boxCounts[this.boxOf(row, col)]++;
+                this.valueCounts[value]++;
+                this.rowSegments[row * segments + col / this.subFieldSize] |= 1 << value;
+                this.colSegments[col * segments + row / this.subFieldSize] |= 1 << value;
+            }
+        }
+        Arrays.fill(this.emptyBands, true);
+        Arrays.fill(this.emptyStacks, true);
+        for (int i = 0; i < this.edgeSize; i++) {
+            this.emptyRows[i] = this.rowCounts[i] == 0;
+            this.emptyCols[i] = this.colCounts[i] == 0;
+            this.emptyBands[i / this.subFieldSize] &= this.emptyRows[i];
+            this.emptyStacks[i / this.subFieldSize] &= this.emptyCols[i];
+        }
+        for (int i = 0; i < this.edgeSize; i++) {
+            this.rowKeys[i] = mix(this.rowCounts[i]) + this.segmentKey(this.rowSegments, i)
+                    + this.crossKey(this.rowSegments, this.colSegments, i);
+            this.colKeys[i] = mix(this.colCounts[i]) + this.segmentKey(this.colSegments, i)
+                    + this.crossKey(this.colSegments, this.rowSegments, i);
+        }
+        for (int offset = 0; offset < this.totalCells; offset++) {
+            final int value = this.source[offset];
+            this.cellKeys[offset] = value == 0 ? 0x51L : mix(((long) this.valueCounts[value] << 8)
+                    | this.boxCounts[this.boxOf(offset / this.edgeSize, offset % this.edgeSize)]);
+        }
+        // two rounds of refinement, row keys take keys of crossing columns and vice versa
+        for (int round = 0; round < 2; round++) {
+            System.arraycopy(this.rowKeys, 0, this.previousRowKeys, 0, this.edgeSize);
+            System.arraycopy(this.colKeys, 0, this.previousColKeys, 0, this.edgeSize);
+            // own key is kept, so crossing lines with equal keys don't erase differences between lines
+            for (int i = 0; i < this.edgeSize; i++) {
+                this.rowKeys[i] = mix(this.previousRowKeys[i] ^ 0x6A09E667F3BCC908L);
+                this.colKeys[i] = mix(this.previousColKeys[i] ^ 0x3C6EF372FE94F82BL);
+            }
+            for (int offset = 0; offset < this.totalCells; offset++) {
+                final int row = offset / this.edgeSize;
+                final int col = offset % this.edgeSize;
+                final long cell = this.cellKeys[offset];
+                this.rowKeys[row] += mix(cell ^ this.previousColKeys[col]);
+                this.colKeys[col] += mix(cell ^ this.previousRowKeys[row] ^ 0x2545F4914F6CDD1DL);
+            }
+        }
+        Arrays.fill(this.bandKeys, 0L);
+        Arrays.fill(this.stackKeys, 0L);
+        for (int i = 0; i < this.edgeSize; i++) {
+            this.bandKeys[i / this.subFieldSize] += mix(this.rowKeys[i]);
+            this.stackKeys[i / this.subFieldSize] += mix(this.colKeys[i]);
+        }
+    }
+
+    // values shared by parts of the line inside sub-fields and parts of other lines of the same band,
+    // it distinguishes lines of solved grids where all counts are equal; a part has at most three values,
+    // so there are 8 codes and the histogram of codes fits in long
+    private long segmentKey(final int[] lineSegments, final int line) {
+        final int segments = this.usedStacks.length;
+        final int bandStart = line / this.subFieldSize * this.subFieldSize;
+        long histogram = 0L;
+        for (int other = bandStart; other < bandStart + this.subFieldSize; other++) {
+            if (other == line) {
+                continue;
+            }
+            for (int s = 0; s < segments; s++) {
+                final int mask = lineSegments[line * segments + s];
+                for (int os = 0; os < segments; os++) {
+                    final int shared = Integer.bitCount(mask & lineSegments[other * segments + os]);
+                    histogram += 1L << ((shared * 2 + (s == os ? 1 : 0)) * 8);
+                }
+            }
+        }
+        return mix(histogram);
+    }
+
+    // values shared by parts of the line and parts of crossing lines inside other bands, it distinguishes
+    // lines of solved grids which have equal segment keys; there are at most two other bands and a part has
+    // at most three values, so the pair of counts is one of 16 codes and the histogram of codes fits in long
+    private long crossKey(final int[] lineSegments, final int[] crossSegments, final int line) {
+        final int segments = this.usedStacks.length;
+        final int band = line / this.subFieldSize;
+        long histogram = 0L;
+        for (int cross = 0; cross < this.edgeSize; cross++) {
+            final int mask = lineSegments[line * segments + cross / this.subFieldSize];
+            int min = Integer.MAX_VALUE;
+            int max = 0;
+            for (int otherBand = 0; otherBand < segments; otherBand++) {
+                if (otherBand != band) {
+                    final int shared = Integer.bitCount(mask & crossSegments[cross * segments + otherBand]);
+                    min = Math.min(min, shared);
+                    max = Math.max(max, shared);
+                }
+            }
+            histogram += 1L << (((min == Integer.MAX_VALUE ? 0 : min) * 4 + max) * 4);
+        }
+        return mix(histogram);
+    }
+
+    // the same for both orientations of the field but with swapped band and stack parts
+    private long orientationKey() {
+        long bands = 0L;
+        long stacks = 0L;
+        for (int i = 0; i < this.bandKeys.length; i++) {
+            bands += mix(this.bandKeys[i]);
+            stacks += mix(this.stackKeys[i]);
+        }
+        return mix(bands) * 31 + stacks;
+    }
+
+    private static boolean isMinimalUnused(final long[] keys, final boolean[] used, final int from,
+                                           final int to, final int index) {
+        for (int i = from; i < to; i++) {
+            if (!used[i] && keys[i] < keys[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // swap of two empty lines (or bands, stacks) maps the field to itself, so only the first unused one is tried
+    private static boolean isRepeatedEmpty(final boolean[] empty, final boolean[] used, final int from,
+                                           final int index) {
+        if (!empty[index]) {
+            return false;
+        }
+        for (int i = from; i < index; i++) {
+            if (empty[i] && !used[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isBudgetExceeded() {
+        if (this.stopCondition != null && !this.stopped && this.nodes >= this.nextStopCheck) {
+            this.nextStopCheck = this.nodes + STOP_CHECK_NODES;
+            this.stopped = this.stopCondition.getAsBoolean();
+        }
+        return this.stopped || this.nodes > this.nodeBudget;
+    }
+
+    public Transform canonicalize(final byte[] cells, final byte[] target) {
+        return this.canonicalize(cells, target, null);
+    }
+
+    // writes canonical form into the target array and returns transformation which makes it,
+    // returns null and leaves the target undefined if the search exceeds the node budget or is stopped
+    public Transform canonicalize(final byte[] cells, final byte[] target, final BooleanSupplier stopCondition) {
+        if (cells.length != this.totalCells || target.length != this.totalCells) {
+            throw new IllegalArgumentException("Unexpected data size, expected " + this.totalCells);
+        }
+        Arrays.fill(this.best, UNKNOWN);
+        this.lessPosition = -1;
+        this.nodes = 0L;
+        this.stopCondition = stopCondition;
+        this.nextStopCheck = 0L;
+        this.stopped = false;
+        // the transposed orientation goes first, so keys of the direct one are still loaded for its search
+        for (int pass = 1; pass >= 0; pass--) {
+            this.loadSource(cells, pass == 1);
+            this.computeKeys();
+            this.orientationKeys[pass] = this.orientationKey();
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            if (this.orientationKeys[pass] > this.orientationKeys[1 - pass]) {
+                continue;
+            }
+            this.transposed = pass == 1;
+            if (this.transposed) {
+                this.loadSource(cells, true);
+                this.computeKeys();
+            }
+            this.searchRow(0);
+        }
+        this.stopCondition = null;
+        if (this.isBudgetExceeded()) {
+            return null;
+        }
+        System.arraycopy(this.best, 0, target, 0, this.totalCells);
+
+        // values missing in the field get the rest labels in natural order
+        final int[] fullLabels = this.bestLabels.clone();
+        int nextLabel = 0;
+        for (int value = 1; value <= this.edgeSize; value++) {
+            nextLabel = Math.max(nextLabel, fullLabels[value]);
+        }
+        for (int value = 1; value <= this.edgeSize; value++) {
+            if (fullLabels[value] == 0) {
+                fullLabels[value] = ++nextLabel;
+            }
+        }
+        return new Transform(this.edgeSize, this.bestTransposed, this.bestRowOrder.clone(),
+                this.bestColOrder.clone(), fullLabels);
+    }
+
+    private int label(final int value) {
+        if (value == 0) {
+            return 0;
+        }
+        int result = this.labels[value];
+        if (result == 0) {
+            this.labelTrail[this.labelCount++] = value;
+            result = this.labelCount;
+            this.labels[value] = result;
+        }
+        return result;
+    }
+
+    private void undoLabels(final int mark) {
+        while (this.labelCount > mark) {
+            this.labels[this.labelTrail[--this.labelCount]] = 0;
+        }
+    }
+
+    // false if the value makes the current form greater than the best one
+    private boolean place(final int position, final int value) {
+        if (this.lessPosition < 0) {
+            final int bestValue = this.best[position];
+            if (value > bestValue) {
+                return false;
+            }
+            if (value < bestValue) {
+                this.lessPosition = position;
+            }
+        }
+        this.current[position] = (byte) value;
+        return true;
+    }
+
+    private void unplace(final int position) {
+        if (this.lessPosition >= position) {
+            this.lessPosition = -1;
+        }
+    }
+
+    // label of the value if it is placed next, without changing of labels
+    private int peekLabel(final int value) {
+        if (value == 0) {
+            return 0;
+        }
+        final int result = this.labels[value];
+        return result == 0 ? this.labelCount + 1 : result;
+    }
+
+    private void searchColumn(final int col) {
+        if (this.isBudgetExceeded()) {
+            return;
+        }
+        if (col == this.edgeSize) {
+            this.searchRow(1);
+            return;
+        }
+        final int[] candidates = this.colCandidates[col];
+        int count = 0;
+        if (col % this.subFieldSize == 0) {
+            for (int stack = 0; stack < this.usedStacks.length; stack++) {
+                if (!this.usedStacks[stack]
+                        && isMinimalUnused(this.stackKeys, this.usedStacks, 0, this.usedStacks.length, stack)
+                        && !isRepeatedEmpty(this.emptyStacks, this.usedStacks, 0, stack)) {
+                    count = this.collectColumnsOfStack(stack * this.subFieldSize, candidates, count);
+                }
+            }
+        } else {
+            count = this.collectColumnsOfStack(this.colOrder[col - 1] / this.subFieldSize * this.subFieldSize,
+                    candidates, count);
+        }
+
+        // only columns giving the smallest value in the first row can make the minimal form
+        final int rowBase = this.rowOrder[0] * this.edgeSize;
+        int minValue = Integer.MAX_VALUE;
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            final int value = this.peekLabel(this.source[rowBase + candidates[i]]);
+            if (value < minValue) {
+                minValue = value;
+                kept = 0;
+            }
+            if (value == minValue) {
+                candidates[kept++] = candidates[i];
+            }
+        }
+        for (int i = 0; i < kept; i++) {
+            final int sourceCol = candidates[i];
+            final int stack = sourceCol / this.subFieldSize;
+            final boolean newStack = col % this.subFieldSize == 0;
+            if (newStack) {
+                this.usedStacks[stack] = true;
+            }
+            this.tryColumn(col, sourceCol);
+            if (newStack) {
+                this.usedStacks[stack] = false;
+            }
+        }
+    }
+
+    private int collectColumnsOfStack(final int stackStart, final int[] candidates, final int count) {
+        final int stackEnd = stackStart + this.subFieldSize;
+        int result = count;
+        for (int c = stackStart; c < stackEnd; c++) {
+            if (!this.usedCols[c] && isMinimalUnused(this.colKeys, this.usedCols, stackStart, stackEnd, c)
+                    && !isRepeatedEmpty(this.emptyCols, this.usedCols, stackStart, c)) {
+                candidates[result++] = c;
+            }
+        }
+        return result;
+    }
+
+    private void tryColumn(final int col, final int sourceCol) {
+        this.nodes++;
+        final int mark = this.labelCount;
+        if (this.place(col, this.label(this.source[this.rowOrder[0] * this.edgeSize + sourceCol]))) {
+            this.colOrder[col] = sourceCol;
+            this.usedCols[sourceCol] = true;
+            this.searchColumn(col + 1);
+            this.usedCols[sourceCol] = false;
+            this.unplace(col);
+        }
+        this.undoLabels(mark);
+    }
+
+    private void searchRow(final int row) {
+        if (this.isBudgetExceeded()) {
+            return;
+        }
+        if (row == this.edgeSize) {
+            if (this.lessPosition >= 0) {
+                System.arraycopy(this.current, 0, this.best, 0, this.totalCells);
+                System.arraycopy(this.rowOrder, 0, this.bestRowOrder, 0, this.edgeSize);
+                System.arraycopy(this.colOrder, 0, this.bestColOrder, 0, this.edgeSize);
+                System.arraycopy(this.labels, 0, this.bestLabels, 0, this.labels.length);
+                this.bestTransposed = this.transposed;
+                this.lessPosition = -1;
+            }
+            return;
+        }
+        final int[] candidates = this.rowCandidates[row];
+        int count = 0;
+        if (row % this.subFieldSize == 0) {
+            for (int band = 0; band < this.usedBands.length; band++) {
+                if (!this.usedBands[band]
+                        && isMinimalUnused(this.bandKeys, this.usedBands, 0, this.usedBands.length, band)
+                        && !isRepeatedEmpty(this.emptyBands, this.usedBands, 0, band)) {
+                    count = this.collectRowsOfBand(band * this.subFieldSize, candidates, count);
+                }
+            }
+        } else {
+            count = this.collectRowsOfBand(this.rowOrder[row - 1] / this.subFieldSize * this.subFieldSize,
+                    candidates, count);
+        }
+        if (row > 0) {
+            // columns are already ordered, so only rows giving the smallest labeled row can make the minimal form
+            count = this.keepMinimalRows(candidates, count);
+        }
+        for (int i = 0; i < count; i++) {
+            final int sourceRow = candidates[i];
+            final int band = sourceRow / this.subFieldSize;
+            final boolean newBand = row % this.subFieldSize == 0;
+            if (newBand) {
+                this.usedBands[band] = true;
+            }
+            this.tryRow(row, sourceRow);
+            if (newBand) {
+                this.usedBands[band] = false;
+            }
+        }
+    }
+
+    private int collectRowsOfBand(final int bandStart, final int[] candidates, final int count) {
+        final int bandEnd = bandStart + this.subFieldSize;
+        int result = count;
+        for (int r = bandStart; r < bandEnd; r++) {
+            if (!this.usedRows[r] && isMinimalUnused(this.rowKeys, this.usedRows, bandStart, bandEnd, r)
+                    && !isRepeatedEmpty(this.emptyRows, this.usedRows, bandStart, r)) {
+                candidates[result++] = r;
+            }
+        }
+        return result;
+    }
+
+    // compares the row as it would be placed with current column order and labels (new values are labeled
+    // in order of appearance) with the minimal form, the minimal form is replaced if the row is less
+    private int compareWithMinimalForm(final int sourceRow, final boolean noMinimalForm) {
+        final int sourceBase = sourceRow * this.edgeSize;
+        int nextLabel = this.labelCount;
+        int result = noMinimalForm ? -1 : 0;
+        for (int col = 0; col < this.edgeSize; col++) {
+            final int value = this.source[sourceBase + this.colOrder[col]];
+            int label = 0;
+            if (value != 0) {
+                label = this.labels[value];
+                if (label == 0) {
+                    label = this.formLabels[value];
+                    if (label == 0) {
+                        label = ++nextLabel;
+                        this.formLabels[value] = label;
+                    }
+                }
+            }
+            if (result == 0) {
+                result = Integer.compare(label, this.minForm[col]);
+                if (result > 0) {
+                    break;
+                }
+            }
+            if (result < 0) {
+                this.minForm[col] = (byte) label;
+            }
+        }
+        for (int col = 0; col < this.edgeSize; col++) {
+            this.formLabels[this.source[sourceBase + this.colOrder[col]]] = 0;
+        }
+        return result;
+    }
+
+    private int keepMinimalRows(final int[] candidates, final int count) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            final int compared = this.compareWithMinimalForm(candidates[i], kept == 0);
+            if (compared < 0) {
+                kept = 0;
+            }
+            if (compared <= 0) {
+                candidates[kept++] = candidates[i];
+            }
+        }
+        return kept;
+    }
+
+    private void tryRow(final int row, final int sourceRow) {
+        this.nodes++;
+        if (row == 0) {
+            // the first row is written together with choosing of column order
+            this.rowOrder[0] = sourceRow;
+            this.usedRows[sourceRow] = true;
+            this.searchColumn(0);
+            this.usedRows[sourceRow] = false;
+            return;
+        }
+        final int mark = this.labelCount;
+        final int base = row * this.edgeSize;
+        final int sourceBase = sourceRow * this.edgeSize;
+        boolean accepted = true;
+        for (int col = 0; col < this.edgeSize && accepted; col++) {
+            accepted = this.place(base + col, this.label(this.source[sourceBase + this.colOrder[col]]));
+        }
+        if (accepted) {
+            this.rowOrder[row] = sourceRow;
+            this.usedRows[sourceRow] = true;
+            this.searchRow(row + 1);
+            this.usedRows[sourceRow] = false;
+        }
+        this.unplace(base);
+        this.undoLabels(mark);
+    }
+
+    /**
+     * Maps a field into canonical space: target[row][col] = labels[source'[rowOrder[row]][colOrder[col]]]
+     * where source' is transposed source if needed. Can be applied to a solution of the canonicalized puzzle.
+     */
+    public record Transform(int edgeSize, boolean transposed, int[] rowOrder, int[] colOrder, int[] labels) {
+        public void apply(final byte[] source, final byte[] target) {
+            for (int row = 0; row < this.edgeSize; row++) {
+                for (int col = 0; col < this.edgeSize; col++) {
+                    final int sourceRow = this.rowOrder[row];
+                    final int sourceCol = this.colOrder[col];
+                    final int offset = this.transposed
+                            ? sourceCol * this.edgeSize + sourceRow
+                            : sourceRow * this.edgeSize + sourceCol;
+                    target[row * this.edgeSize + col] = (byte) this.labels[source[offset]];
+                }
+            }
+        }
+
+        // inverse of apply, maps a field from canonical space back to the original one
+        public void revert(final byte[] source, final byte[] target) {
+            final int[] values = new int[this.labels.length];
+            for (int value = 0; value < this.labels.length; value++) {
+                values[this.labels[value]] = value;
+            }
+            for (int row = 0; row < this.edgeSize; row++) {
+                for (int col = 0; col < this.edgeSize; col++) {
+                    final int sourceRow = this.rowOrder[row];
+                    final int sourceCol = this.colOrder[col];
+                    final int offset = this.transposed
+                            ? sourceCol * this.edgeSize + sourceRow
+                            : sourceRow * this.edgeSize + sourceCol;
+                    target[offset] = (byte) values[source[row * this.edgeSize + col]];
+                }
+            }
+        }
+    }
+}
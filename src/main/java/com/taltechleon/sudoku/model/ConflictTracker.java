@@ -0,0 +1,232 @@
+package com.taltechleon.sudoku.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Incremental validator of a field. Keeps counters of every value in every row, column and sub-field
+ * and masks of used values, so a cell change updates only its three units and conflict queries don't
+ * rescan the field. Cells without any candidate are tracked too. Not thread safe.
+ */
+public final class ConflictTracker {
+    private final int subFieldSize;
+    private final int subFields;
+    private final int edgeSize;
+    private final int totalCells;
+
+    // units are rows, then columns, then sub-fields
+    private final int[] unitCells;
+    private final int[] unitsOfCell;
+
+    private final byte[] cells;
+    private final int[] valueCounts;
+    private final int[] usedValues;
+    private final boolean[] deadCells;
+    private int duplicatedValues;
+    private int deadCellCount;
+    private int filledCells;
+
+    public ConflictTracker(final int subFieldSize, final int subFields) {
+        this.subFieldSize = subFieldSize;
+        this.subFields = subFields;
+        this.edgeSize = subFieldSize * subFields;
+        this.totalCells = this.edgeSize * this.edgeSize;
+        if (this.edgeSize > 32) {
+            throw new IllegalArgumentException("Too big number of variants, rework needed");
+        }
+
+        this.unitCells = new int[this.totalCells * 3];
+        this.unitsOfCell = new int[this.totalCells * 3];
+        for (int offset = 0; offset < this.totalCells; offset++) {
+            final int row = offset / this.edgeSize;
+            final int col = offset % this.edgeSize;
+            final int subField = (row / this.subFieldSize) * this.subFields + col / this.subFieldSize;
+            final int indexInSubField = (row % this.subFieldSize) * this.subFieldSize + col % this.subFieldSize;
+            this.unitCells[row * this.edgeSize + col] = offset;
+            this.unitCells[(this.edgeSize + col) * this.edgeSize + row] = offset;
+            this.unitCells[(this.edgeSize * 2 + subField) * this.edgeSize + indexInSubField] = offset;
+            this.unitsOfCell[offset * 3] = row;
+            this.unitsOfCell[offset * 3 + 1] = this.edgeSize + col;
+            this.unitsOfCell[offset * 3 + 2] = this.edgeSize * 2 + subField;
+        }
+
+        this.cells = new byte[this.totalCells];
+        this.valueCounts = new int[this.edgeSize * 3 * this.edgeSize];
+        this.usedValues = new int[this.edgeSize * 3];
+        this.deadCells = new boolean[this.totalCells];
+    }
+
+    private int offsetOf(final int col, final int row) {
+        if (col < 0 || col >= this.edgeSize) {
+            throw new IllegalArgumentException("Column must be in 0.." + (this.edgeSize - 1));
+        }
+        if (row < 0 || row >= this.edgeSize) {
+            throw new IllegalArgumentException("Row must be in 0.." + (this.edgeSize - 1));
+        }
+        return row * this.edgeSize + col;
+    }
+
+    public void load(final byte[] field) {
+        if (field.length != this.totalCells) {
+            throw new IllegalArgumentException(
+                    "Unexpected data size: " + this.totalCells + " <> " + field.length);
+        }
+        Arrays.fill(this.cells, (byte) 0);
+        Arrays.fill(this.valueCounts, 0);
+        Arrays.fill(this.usedValues, 0);
+        this.duplicatedValues = 0;
+        this.filledCells = 0;
+        for (int offset = 0; offset < this.totalCells; offset++) {
+            final int value = field[offset] & 0xFF;
+            if (value > this.edgeSize) {
+                throw new IllegalArgumentException("Value must be in 0.." + this.edgeSize + ": " + value);
+            }
+            if (value != 0) {
+                this.cells[offset] = (byte) value;
+                this.addValue(offset, value);
+            }
+        }
+        this.deadCellCount = 0;
+        for (int offset = 0; offset < this.totalCells; offset++) {
+            this.deadCells[offset] = false;
+            this.updateDeadCell(offset);
+        }
+    }
+
+    public void set(final int col, final int row, final int value) {
+        final int offset = this.offsetOf(col, row);
+        if (value < 0 || value > this.edgeSize) {
+            throw new IllegalArgumentException("Value must be in 0.." + this.edgeSize + ": " + value);
+        }
+        final int oldValue = this.cells[offset];
+        if (oldValue == value) {
+            return;
+        }
+        if (oldValue != 0) {
+            this.removeValue(offset, oldValue);
+        }
+        this.cells[offset] = (byte) value;
+        if (value != 0) {
+            this.addValue(offset, value);
+        }
+        // only cells of the changed units can get or lose candidates
+        for (int i = 0; i < 3; i++) {
+            final int unitStart = this.unitsOfCell[offset * 3 + i] * this.edgeSize;
+            for (int j = unitStart; j < unitStart + this.edgeSize; j++) {
+                this.updateDeadCell(this.unitCells[j]);
+            }
+        }
+    }
+
+    private void addValue(final int offset, final int value) {
+        this.filledCells++;
+        for (int i = 0; i < 3; i++) {
+            final int unit = this.unitsOfCell[offset * 3 + i];
+            if (++this.valueCounts[unit * this.edgeSize + value - 1] == 2) {
+                this.duplicatedValues++;
+            }
+            this.usedValues[unit] |= 1 << (value - 1);
+        }
+    }
+
+    private void removeValue(final int offset, final int value) {
+        this.filledCells--;
+        for (int i = 0; i < 3; i++) {
+            final int unit = this.unitsOfCell[offset * 3 + i];
+            final int count = --this.valueCounts[unit * this.edgeSize + value - 1];
+            if (count == 1) {
+                this.duplicatedValues--;
+            } else if (count == 0) {
+                this.usedValues[unit] &= ~(1 << (value - 1));
+            }
+        }
+    }
+
+    private void updateDeadCell(final int offset) {
+        final boolean dead = this.cells[offset] == 0 && this.candidatesOf(offset) == 0;
+        if (dead != this.deadCells[offset]) {
+            this.deadCells[offset] = dead;
+            this.deadCellCount += dead ? 1 : -1;
+        }
+    }
+
+    private int candidatesOf(final int offset) {
+        final int used = this.usedValues[this.unitsOfCell[offset * 3]]
+                | this.usedValues[this.unitsOfCell[offset * 3 + 1]]
+                | this.usedValues[this.unitsOfCell[offset * 3 + 2]];
+        return ~used & (this.edgeSize == 32 ? -1 : (1 << this.edgeSize) - 1);
+    }
+
+    public int get(final int col, final int row) {
+        return this.cells[this.offsetOf(col, row)];
+    }
+
+    // bit N is set if value N+1 is not used in row, column and sub-field of the cell
+    public int getCandidates(final int col, final int row) {
+        return this.candidatesOf(this.offsetOf(col, row));
+    }
+
+    // the cell value is met more than once in one of the cell units
+    public boolean isConflicting(final int col, final int row) {
+        final int offset = this.offsetOf(col, row);
+        final int value = this.cells[offset];
+        if (value == 0) {
+            return false;
+        }
+        for (int i = 0; i < 3; i++) {
+            if (this.valueCounts[this.unitsOfCell[offset * 3 + i] * this.edgeSize + value - 1] > 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isDeadCell(final int col, final int row) {
+        return this.deadCells[this.offsetOf(col, row)];
+    }
+
+    public boolean hasErrors() {
+        return this.duplicatedValues > 0 || this.deadCellCount > 0;
+    }
+
+    public boolean isSolved() {
+        return this.filledCells == this.totalCells && this.duplicatedValues == 0;
+    }
+
+    // errors in the same order as the full scan: rows, columns, sub-fields, then cells without candidates
+    public List<SudokuModel.Error> findErrors() {
+        if (!this.hasErrors()) {
+            return new ArrayList<>();
+        }
+        final List<SudokuModel.Error> result = new ArrayList<>();
+        if (this.duplicatedValues > 0) {
+            this.addUnitErrors(result, 0, SudokuModel.ErrorType.ROW_ERROR);
+            this.addUnitErrors(result, this.edgeSize, SudokuModel.ErrorType.COLUMN_ERROR);
+            this.addUnitErrors(result, this.edgeSize * 2, SudokuModel.ErrorType.SUBFIELD_ERROR);
+        }
+        if (this.deadCellCount > 0) {
+            for (int offset = 0; offset < this.totalCells; offset++) {
+                if (this.deadCells[offset]) {
+                    result.add(new SudokuModel.Error(SudokuModel.ErrorType.NO_CELL_VARIANTS,
+                            offset % this.edgeSize, offset / this.edgeSize));
+                }
+            }
+        }
+        return result;
+    }
+
+    private void addUnitErrors(final List<SudokuModel.Error> errors, final int firstUnit,
+                               final SudokuModel.ErrorType type) {
+        for (int unit = firstUnit; unit < firstUnit + this.edgeSize; unit++) {
+            final int unitStart = unit * this.edgeSize;
+            for (int i = unitStart; i < unitStart + this.edgeSize; i++) {
+                final int offset = this.unitCells[i];
+                final int value = this.cells[offset];
+                if (value != 0 && this.valueCounts[unitStart + value - 1] > 1) {
+                    errors.add(new SudokuModel.Error(type, offset % this.edgeSize, offset / this.edgeSize));
+                }
+            }
+        }
+    }
+}
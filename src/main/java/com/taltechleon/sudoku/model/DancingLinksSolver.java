@@ -0,0 +1,289 @@
+package com.taltechleon.sudoku.model;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Exact cover solver, <a href="https://en.wikipedia.org/wiki/Dancing_Links">Algorithm X with dancing links</a>.
+ * Every candidate (cell, value) is a row and covers four columns: the cell, value in row, value in
+ * column and value in sub-field.
+ */
+public final class DancingLinksSolver implements FieldSolver {
+    private static final int ROOT = 0;
+    private static final int STOP_CHECK_PERIOD_MASK = 0xFF;
+
+    private final int subFieldSize;
+    private final int subFields;
+    private final int edgeSize;
+    private final int totalCells;
+
+    private final int[] left;
+    private final int[] right;
+    private final int[] up;
+    private final int[] down;
+    private final int[] column;
+    private final int[] rowOfNode;
+    private final int[] columnSize;
+
+    private final byte[] cells;
+    private final int[] givenRows;
+    private int givenCount;
+    private final int[] solutionRows;
+
+    private boolean loaded;
+    private int limitSolutions;
+    private int foundSolutions;
+    private Consumer<byte[]> solutionConsumer;
+    private BooleanSupplier stopCondition;
+    private int nodeCounter;
+
+    private SolverStatistics statistics;
+    private long searchNodes;
+    private long searchBacktracks;
+    private long searchGuesses;
+    private int searchMaxDepth;
+
+    public DancingLinksSolver(final int subFieldSize, final int subFields) {
+        this.subFieldSize = subFieldSize;
+        this.subFields = subFields;
+        this.edgeSize = subFieldSize * subFields;
+        this.totalCells = this.edgeSize * this.edgeSize;
+
+        if (this.edgeSize > 32) {
+            throw new IllegalArgumentException("Too big number of variants, rework needed");
+        }
+
+        final int columns = this.totalCells * 4;
+        final int rows = this.totalCells * this.edgeSize;
+        final int nodes = 1 + columns + rows * 4;
+
+        this.left = new int[nodes];
+        this.right = new int[nodes];
+        this.up = new int[nodes];
+        this.down = new int[nodes];
+        this.column = new int[nodes];
+        this.rowOfNode = new int[nodes];
+        this.columnSize = new int[columns + 1];
+
+        for (int c = 0; c <= columns; c++) {
+            this.left[c] = c == 0 ? columns : c - 1;
+            this.right[c] = c == columns ? 0 : c + 1;
+            this.up[c] = c;
+            this.down[c] = c;
+            this.column[c] = c;
+        }
+
+        int node = columns + 1;
+        for (int offset = 0; offset < this.totalCells; offset++) {
+            final int row = offset / this.edgeSize;
+            final int col = offset % this.edgeSize;
+            final int subField = (row / this.subFieldSize) * this.subFields + col / this.subFieldSize;
+            for (int value = 0; value < this.edgeSize; value++) {
+                final int rowId = offset * this.edgeSize + value;
+                final int first = node;
+                this.appendNode(node++, rowId, 1 + offset);
+                this.appendNode(node++, rowId, 1 + this.totalCells + row * this.edgeSize + value);
+                this.appendNode(node++, rowId, 1 + this.totalCells * 2 + col * this.edgeSize + value);
+                this.appendNode(node++, rowId,
+                        1 + this.totalCells * 3 + subField * this.edgeSize + value);
+                for (int i = 0; i < 4; i++) {
+                    this.left[first + i] = first + (i + 3) % 4;
+                    this.right[first + i] = first + (i + 1) % 4;
+                }
+            }
+        }
+
+        this.cells = new byte[this.totalCells];
+        this.givenRows = new int[this.totalCells];
+        this.solutionRows = new int[this.totalCells];
+    }
+
+    private void appendNode(final int node, final int rowId, final int columnHeader) {
+        this.column[node] = columnHeader;
+        this.rowOfNode[node] = rowId;
+        this.up[node] = this.up[columnHeader];
+        this.down[node] = columnHeader;
+        this.down[this.up[columnHeader]] = node;
+        this.up[columnHeader] = node;
+        this.columnSize[columnHeader]++;
+    }
+
+    private int firstNodeOfRow(final int rowId) {
+        return 1 + this.totalCells * 4 + rowId * 4;
+    }
+
+    private void cover(final int columnHeader) {
+        this.left[this.right[columnHeader]] = this.left[columnHeader];
+        this.right[this.left[columnHeader]] = this.right[columnHeader];
+        for (int i = this.down[columnHeader]; i != columnHeader; i = this.down[i]) {
+            for (int j = this.right[i]; j != i; j = this.right[j]) {
+                this.up[this.down[j]] = this.up[j];
+                this.down[this.up[j]] = this.down[j];
+                this.columnSize[this.column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(final int columnHeader) {
+        for (int i = this.up[columnHeader]; i != columnHeader; i = this.up[i]) {
+            for (int j = this.left[i]; j != i; j = this.left[j]) {
+                this.columnSize[this.column[j]]++;
+                this.up[this.down[j]] = j;
+                this.down[this.up[j]] = j;
+            }
+        }
+        this.left[this.right[columnHeader]] = columnHeader;
+        this.right[this.left[columnHeader]] = columnHeader;
+    }
+
+    private void selectRow(final int node) {
+        this.cover(this.column[node]);
+        for (int j = this.right[node]; j != node; j = this.right[j]) {
+            this.cover(this.column[j]);
+        }
+    }
+
+    private void unselectRow(final int node) {
+        for (int j = this.left[node]; j != node; j = this.left[j]) {
+            this.uncover(this.column[j]);
+        }
+        this.uncover(this.column[node]);
+    }
+
+    private void releaseGivens() {
+        while (this.givenCount > 0) {
+            this.unselectRow(this.firstNodeOfRow(this.givenRows[--this.givenCount]));
+        }
+    }
+
+    @Override
+    public boolean load(final byte[] field) {
+        if (field.length != this.totalCells) {
+            throw new IllegalArgumentException(
+                    "Unexpected data size: " + this.totalCells + " <> " + field.length);
+        }
+        this.releaseGivens();
+        this.loaded = false;
+
+        final int[] usedInRows = new int[this.edgeSize];
+        final int[] usedInCols = new int[this.edgeSize];
+        final int[] usedInSubFields = new int[this.edgeSize];
+        for (int offset = 0; offset < this.totalCells; offset++) {
+            final int value = field[offset] & 0xFF;
+            if (value > this.edgeSize) {
+                throw new IllegalArgumentException("Value must be in 0.." + this.edgeSize + ": " + value);
+            }
+            this.cells[offset] = (byte) value;
+            if (value != 0) {
+                final int row = offset / this.edgeSize;
+                final int col = offset % this.edgeSize;
+                final int subField = (row / this.subFieldSize) * this.subFields + col / this.subFieldSize;
+                final int bit = 1 << (value - 1);
+                if (((usedInRows[row] | usedInCols[col] | usedInSubFields[subField]) & bit) != 0) {
+                    this.releaseGivens();
+                    return false;
+                }
+                usedInRows[row] |= bit;
+                usedInCols[col] |= bit;
+                usedInSubFields[subField] |= bit;
+
+                final int rowId = offset * this.edgeSize + value - 1;
+                this.selectRow(this.firstNodeOfRow(rowId));
+                this.givenRows[this.givenCount++] = rowId;
+            }
+        }
+        this.loaded = true;
+        return true;
+    }
+
+    @Override
+    public void setStopCondition(final BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    @Override
+    public void setStatistics(final SolverStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public int solve(final int limitSolutions, final Consumer<byte[]> solutionConsumer) {
+        this.limitSolutions = limitSolutions;
+        this.foundSolutions = 0;
+        if (!this.loaded) {
+            return 0;
+        }
+        this.solutionConsumer = solutionConsumer;
+        try {
+            this.search(0);
+        } finally {
+            this.solutionConsumer = null;
+        }
+        if (this.statistics != null) {
+            // exact cover has no separate propagation step
+            this.statistics.addSearch(this.searchNodes, this.searchBacktracks, this.searchGuesses, 0L,
+                    this.searchMaxDepth);
+            this.searchNodes = 0L;
+            this.searchBacktracks = 0L;
+            this.searchGuesses = 0L;
+            this.searchMaxDepth = 0;
+        }
+        return this.foundSolutions;
+    }
+
+    private boolean search(final int depth) {
+        if ((++this.nodeCounter & STOP_CHECK_PERIOD_MASK) == 0
+                && this.stopCondition != null && this.stopCondition.getAsBoolean()) {
+            return true;
+        }
+        if (this.statistics != null) {
+            this.searchNodes++;
+            this.searchMaxDepth = Math.max(this.searchMaxDepth, depth);
+        }
+        if (this.right[ROOT] == ROOT) {
+            for (int i = 0; i < depth; i++) {
+                final int rowId = this.solutionRows[i];
+                this.cells[rowId / this.edgeSize] = (byte) (rowId % this.edgeSize + 1);
+            }
+            this.foundSolutions++;
+            this.solutionConsumer.accept(this.cells);
+            return this.foundSolutions >= this.limitSolutions;
+        }
+
+        int bestColumn = this.right[ROOT];
+        for (int c = this.right[bestColumn]; c != ROOT && this.columnSize[bestColumn] > 1; c = this.right[c]) {
+            if (this.columnSize[c] < this.columnSize[bestColumn]) {
+                bestColumn = c;
+            }
+        }
+        if (this.columnSize[bestColumn] == 0) {
+            if (this.statistics != null) {
+                this.searchBacktracks++;
+            }
+            return false;
+        }
+        // a guess is counted per row actually tried, as BitMaskSolver counts per value tried
+        final boolean guess = this.statistics != null && this.columnSize[bestColumn] > 1;
+
+        this.cover(bestColumn);
+        for (int r = this.down[bestColumn]; r != bestColumn; r = this.down[r]) {
+            if (guess) {
+                this.searchGuesses++;
+            }
+            this.solutionRows[depth] = this.rowOfNode[r];
+            for (int j = this.right[r]; j != r; j = this.right[j]) {
+                this.cover(this.column[j]);
+            }
+            final boolean stop = this.search(depth + 1);
+            for (int j = this.left[r]; j != r; j = this.left[j]) {
+                this.uncover(this.column[j]);
+            }
+            if (stop) {
+                this.uncover(bestColumn);
+                return true;
+            }
+        }
+        this.uncover(bestColumn);
+        return false;
+    }
+}
@@ -0,0 +1,67 @@
+package com.taltechleon.sudoku.model;
+
+/**
+ * Rates a puzzle by solving effort. Propagation techniques are enabled one by one over the same
+ * field state, the first one which completes the field is the hardest deduction a human needs.
+ * If all techniques stall, the rest is searched and guesses and nodes of the search tree are counted.
+ * Instances keep a solver and are not thread safe.
+ */
+public final class DifficultyRater {
+    private static final Technique[] TECHNIQUES = Technique.values();
+
+    private final BitMaskSolver solver;
+    private final SolverStatistics statistics = new SolverStatistics();
+    private final byte[] solution;
+
+    public DifficultyRater(final int subFieldSize, final int subFields) {
+        this.solver = new BitMaskSolver(subFieldSize, subFields);
+        this.solution = new byte[this.solver.getTotalCells()];
+    }
+
+    public Rating rate(final byte[] cells) {
+        if (!this.solver.load(cells)) {
+            return new Rating(null, false, 0L, 0L, 0);
+        }
+        // every next level continues from the state left by simpler techniques
+        for (final Technique technique : TECHNIQUES) {
+            this.solver.setPropagation(technique);
+            if (!this.solver.propagate()) {
+                return new Rating(technique, false, 0L, 1L, 0);
+            }
+            if (this.solver.getEmptyCount() == 0) {
+                return new Rating(technique, false, 0L, 1L, 1);
+            }
+        }
+
+        final SolverStatistics.Snapshot before = this.statistics.snapshot();
+        this.solver.setStatistics(this.statistics);
+        final int solutions;
+        try {
+            solutions = this.solver.solve(2, this.solution);
+        } finally {
+            this.solver.setStatistics(null);
+        }
+        final SolverStatistics.Snapshot after = this.statistics.snapshot();
+        return new Rating(TECHNIQUES[TECHNIQUES.length - 1], true, after.guesses() - before.guesses(),
+                after.nodes() - before.nodes(), solutions);
+    }
+
+    /**
+     * Hardest technique is null for a field with conflicting values, solutions are counted up to two.
+     */
+    public record Rating(Technique hardestTechnique, boolean needsGuessing, long guesses, long nodes,
+                         int solutions) {
+        public boolean isUnique() {
+            return this.solutions == 1;
+        }
+
+        // grows with difficulty, can be used to order puzzles inside a tier
+        public long score() {
+            if (this.hardestTechnique == null) {
+                return 0L;
+            }
+            final long techniqueScore = (this.hardestTechnique.ordinal() + 1L) * 100L;
+            return this.needsGuessing ? techniqueScore + 100L + this.guesses : techniqueScore;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.taltechleon.sudoku.model;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+public interface FieldSolver {
+    boolean load(byte[] field);
+
+    int solve(int limitSolutions, Consumer<byte[]> solutionConsumer);
+
+    // checked periodically during search, true stops search, null removes condition
+    void setStopCondition(BooleanSupplier stopCondition);
+
+    // search counters are added after every solve, null disables collecting
+    void setStatistics(SolverStatistics statistics);
+}
@@ -0,0 +1,87 @@
+package com.taltechleon.sudoku.model;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of durations in nanoseconds with log-linear buckets in the manner of
+ * HdrHistogram: every power of two range is split into eight sub-buckets, so a reported value is
+ * within 12.5% of the recorded one. Fixed memory, recording is one atomic increment.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS + SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private static int bucketOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // the biggest value which falls into the bucket
+    private static long highestValueOf(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long lowest = (long) (SUB_BUCKETS | bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1L;
+    }
+
+    public void record(final long nanos) {
+        this.counts.incrementAndGet(bucketOf(Math.max(0L, nanos)));
+    }
+
+    public long getCount() {
+        long result = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            result += this.counts.get(i);
+        }
+        return result;
+    }
+
+    // percentile in 0..100, zero if nothing is recorded
+    public long getValueAtPercentile(final double percentile) {
+        if (percentile < 0.0d || percentile > 100.0d) {
+            throw new IllegalArgumentException("Percentile must be in 0..100: " + percentile);
+        }
+        final long[] snapshot = new long[BUCKETS];
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = this.counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+        final long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0d * total));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return highestValueOf(i);
+            }
+        }
+        return highestValueOf(BUCKETS - 1);
+    }
+
+    public long getMaxValue() {
+        for (int i = BUCKETS - 1; i >= 0; i--) {
+            if (this.counts.get(i) != 0L) {
+                return highestValueOf(i);
+            }
+        }
+        return 0L;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts.set(i, 0L);
+        }
+    }
+}
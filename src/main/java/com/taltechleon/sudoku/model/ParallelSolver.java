@@ -0,0 +1,182 @@
+package com.taltechleon.sudoku.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Splits top levels of the search tree into fork-join tasks, every task works over its own copy of
+ * the field. The solution consumer is called from pool threads and must be thread safe.
+ */
+public final class ParallelSolver implements FieldSolver {
+    // shared by all instances, pool threads outlive solvers and per instance thread locals would pile up
+    private static final ThreadLocal<Map<Integer, BitMaskSolver>> SOLVERS = ThreadLocal.withInitial(HashMap::new);
+
+    private final int subFieldSize;
+    private final int subFields;
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    private final Technique propagation;
+    private final byte[] field;
+    private boolean loaded;
+    private BooleanSupplier stopCondition;
+    private SolverStatistics statistics;
+
+    public ParallelSolver(final int subFieldSize, final int subFields) {
+        this(subFieldSize, subFields, ForkJoinPool.commonPool(), Technique.HIDDEN_PAIR);
+    }
+
+    public ParallelSolver(final int subFieldSize, final int subFields, final ForkJoinPool pool,
+                          final Technique propagation) {
+        this.subFieldSize = subFieldSize;
+        this.subFields = subFields;
+        this.pool = pool;
+        // every split level gives at least two branches
+        this.splitDepth = 32 - Integer.numberOfLeadingZeros(pool.getParallelism() * 8);
+        this.propagation = propagation;
+        this.field = new byte[this.threadSolver().getTotalCells()];
+    }
+
+    // the solver is reused by tasks running on the thread one after another, a task never keeps it over a join
+    private BitMaskSolver threadSolver() {
+        final BitMaskSolver solver = SOLVERS.get().computeIfAbsent(this.subFieldSize << 16 | this.subFields,
+                key -> new BitMaskSolver(this.subFieldSize, this.subFields));
+        solver.setPropagation(this.propagation);
+        return solver;
+    }
+
+    @Override
+    public boolean load(final byte[] field) {
+        this.loaded = this.threadSolver().load(field);
+        System.arraycopy(field, 0, this.field, 0, this.field.length);
+        return this.loaded;
+    }
+
+    @Override
+    public void setStopCondition(final BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    @Override
+    public void setStatistics(final SolverStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public int solve(final int limitSolutions, final Consumer<byte[]> solutionConsumer) {
+        if (!this.loaded || limitSolutions <= 0) {
+            return 0;
+        }
+        final SearchContext context =
+                new SearchContext(limitSolutions, solutionConsumer, this.stopCondition, this.statistics);
+        this.pool.invoke(new SearchTask(context, this.field.clone(), 0));
+        return Math.min(context.foundSolutions.get(), limitSolutions);
+    }
+
+    private static final class SearchContext {
+        private final int limitSolutions;
+        private final Consumer<byte[]> solutionConsumer;
+        private final BooleanSupplier externalStopCondition;
+        private final SolverStatistics statistics;
+        private final AtomicInteger foundSolutions = new AtomicInteger();
+        private volatile boolean stopped;
+
+        private SearchContext(final int limitSolutions, final Consumer<byte[]> solutionConsumer,
+                              final BooleanSupplier externalStopCondition, final SolverStatistics statistics) {
+            this.limitSolutions = limitSolutions;
+            this.solutionConsumer = solutionConsumer;
+            this.externalStopCondition = externalStopCondition;
+            this.statistics = statistics;
+        }
+
+        private void onSolution(final byte[] cells) {
+            final int found = this.foundSolutions.incrementAndGet();
+            if (found <= this.limitSolutions) {
+                this.solutionConsumer.accept(cells);
+            }
+            if (found >= this.limitSolutions) {
+                this.stopped = true;
+            }
+        }
+
+        private boolean isStopped() {
+            if (!this.stopped && this.externalStopCondition != null
+                    && this.externalStopCondition.getAsBoolean()) {
+                this.stopped = true;
+            }
+            return this.stopped;
+        }
+    }
+
+    private final class SearchTask extends RecursiveAction {
+        private final SearchContext context;
+        private final byte[] field;
+        private final int depth;
+
+        private SearchTask(final SearchContext context, final byte[] field, final int depth) {
+            this.context = context;
+            this.field = field;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.context.isStopped()) {
+                return;
+            }
+            final BitMaskSolver solver = threadSolver();
+            if (!solver.load(this.field)) {
+                return;
+            }
+
+            if (this.depth >= splitDepth) {
+                solver.setStopCondition(this.context::isStopped);
+                solver.setStatistics(this.context.statistics);
+                solver.setSearchDepthOffset(this.depth);
+                try {
+                    solver.solve(Integer.MAX_VALUE, this.context::onSolution);
+                } finally {
+                    solver.setStopCondition(null);
+                    solver.setStatistics(null);
+                    solver.setSearchDepthOffset(0);
+                }
+                return;
+            }
+
+            final int placedMark = solver.getPlacedMark();
+            final int exclusionMark = solver.getExclusionMark();
+            final boolean consistent = solver.propagate();
+            final int offset = consistent ? solver.findBranchCell() : -1;
+            int variants = offset < 0 ? 0 : solver.candidates(offset);
+            if (this.context.statistics != null) {
+                // split levels are search nodes too, counted the same way as BitMaskSolver counts own ones
+                final boolean deadEnd = !consistent || (offset >= 0 && variants == 0);
+                this.context.statistics.addSearch(1L, deadEnd ? 1L : 0L, this.depth > 0 ? 1L : 0L,
+                        solver.getPlacedMark() - placedMark + solver.getExclusionMark() - exclusionMark, this.depth);
+            }
+            if (!consistent) {
+                return;
+            }
+            if (offset < 0) {
+                this.context.onSolution(solver.cells());
+                return;
+            }
+
+            final List<SearchTask> subTasks = new ArrayList<>();
+            while (variants != 0) {
+                final int bit = variants & -variants;
+                variants ^= bit;
+                final byte[] branchField = solver.cells().clone();
+                branchField[offset] = (byte) (Integer.numberOfTrailingZeros(bit) + 1);
+                subTasks.add(new SearchTask(this.context, branchField, this.depth + 1));
+            }
+            invokeAll(subTasks);
+        }
+    }
+}
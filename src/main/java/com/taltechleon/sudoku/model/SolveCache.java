@@ -0,0 +1,255 @@
+package com.taltechleon.sudoku.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Bounded thread safe cache of solvability checks keyed by 64 bit field fingerprint. Entries are
+ * split between lock striped segments, every segment evicts its least recently used entry. With
+ * canonicalization a miss by the raw fingerprint is looked up by fingerprint of the canonical form,
+ * so isomorphic fields share one solve and the stored solution is mapped back by the transformation.
+ * Fields with fewer clues than a unique puzzle needs are solved directly and cached by raw fingerprint.
+ */
+public final class SolveCache {
+    private static final int SEGMENTS = 16;
+
+    private final int subFieldSize;
+    private final int subFields;
+    private final int totalCells;
+    private final boolean canonicalize;
+    private final int minCluesToCanonicalize;
+    private final Segment[] segments;
+    private final ThreadLocal<Worker> workers;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder canonicalHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SolveCache(final int subFieldSize, final int subFields, final int maxEntries,
+                      final boolean canonicalize) {
+        if (maxEntries < SEGMENTS) {
+            throw new IllegalArgumentException("Max entries must be at least " + SEGMENTS + ": " + maxEntries);
+        }
+        this.subFieldSize = subFieldSize;
+        this.subFields = subFields;
+        final int edgeSize = subFieldSize * subFields;
+        this.totalCells = edgeSize * edgeSize;
+        this.canonicalize = canonicalize;
+        // sparse fields have many equal lines, canonical form costs more than direct solve of them;
+        // the minimal number of clues of a unique 9x9 puzzle scaled by field size
+        this.minCluesToCanonicalize = this.totalCells * 17 / 81;
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment(maxEntries / SEGMENTS);
+        }
+        this.workers = ThreadLocal.withInitial(Worker::new);
+        if (canonicalize) {
+            // fail fast for unsupported field sizes
+            this.workers.get().getCanonicalizer();
+        }
+    }
+
+    private Segment segmentFor(final long key) {
+        return this.segments[(int) (key >>> 60) & (SEGMENTS - 1)];
+    }
+
+    private Entry get(final long key) {
+        final Segment segment = this.segmentFor(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    private void put(final long key, final Entry entry) {
+        final Segment segment = this.segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, entry);
+        }
+    }
+
+    private static int countClues(final byte[] cells) {
+        int result = 0;
+        for (final byte cell : cells) {
+            if (cell != 0) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    // a different field with the same fingerprint must not get foreign solution
+    private static boolean isConsistent(final Entry entry, final byte[] cells) {
+        if (entry.solution == null) {
+            return true;
+        }
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != 0 && cells[i] != entry.solution[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Result check(final byte[] cells) {
+        return this.check(cells, null);
+    }
+
+    // returns null if the stop condition interrupted solving, interrupted results are not cached
+    public Result check(final byte[] cells, final BooleanSupplier stopCondition) {
+        if (cells.length != this.totalCells) {
+            throw new IllegalArgumentException("Unexpected data size: " + this.totalCells + " <> " + cells.length);
+        }
+        final long key = SudokuModel.fingerprint(cells);
+        final Entry cached = this.get(key);
+        if (cached != null && isConsistent(cached, cells)) {
+            this.hits.increment();
+            return cached.toResult();
+        }
+
+        final Worker worker = this.workers.get();
+        final Entry entry;
+        // a sparse field or a field over the canonicalizer budget is cached only by its raw fingerprint
+        final Canonicalizer.Transform transform = this.canonicalize && countClues(cells) >= this.minCluesToCanonicalize
+                ? worker.getCanonicalizer().canonicalize(cells, worker.canonical, stopCondition) : null;
+        if (transform == null && stopCondition != null && stopCondition.getAsBoolean()) {
+            return null;
+        }
+        if (transform != null) {
+            // canonical keys get another seed so they never mix with raw ones
+            final long canonicalKey = ~SudokuModel.fingerprint(worker.canonical);
+            Entry canonicalEntry = this.get(canonicalKey);
+            if (canonicalEntry != null && isConsistent(canonicalEntry, worker.canonical)) {
+                this.canonicalHits.increment();
+            } else {
+                this.misses.increment();
+                canonicalEntry = worker.solve(worker.canonical, stopCondition);
+                if (canonicalEntry == null) {
+                    return null;
+                }
+                this.put(canonicalKey, canonicalEntry);
+            }
+            if (canonicalEntry.solution == null) {
+                entry = canonicalEntry;
+            } else {
+                final byte[] solution = new byte[this.totalCells];
+                transform.revert(canonicalEntry.solution, solution);
+                entry = new Entry(canonicalEntry.solvability, solution);
+            }
+        } else {
+            this.misses.increment();
+            entry = worker.solve(cells, stopCondition);
+            if (entry == null) {
+                return null;
+            }
+        }
+        this.put(key, entry);
+        return entry.toResult();
+    }
+
+    public int size() {
+        int result = 0;
+        for (final Segment segment : this.segments) {
+            synchronized (segment) {
+                result += segment.size();
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        for (final Segment segment : this.segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public Metrics getMetrics() {
+        return new Metrics(this.hits.sum(), this.canonicalHits.sum(), this.misses.sum(),
+                this.evictions.sum(), this.size());
+    }
+
+    public enum Solvability {
+        NO_SOLUTIONS,
+        UNIQUE,
+        MULTIPLE
+    }
+
+    // solution is the first found one, it is null if there are no solutions
+    public record Result(Solvability solvability, byte[] solution) {
+    }
+
+    public record Metrics(long hits, long canonicalHits, long misses, long evictions, int size) {
+        public double hitRate() {
+            final long total = this.hits + this.canonicalHits + this.misses;
+            return total == 0L ? 0.0d : (double) (this.hits + this.canonicalHits) / total;
+        }
+    }
+
+    private record Entry(Solvability solvability, byte[] solution) {
+        private Result toResult() {
+            return new Result(this.solvability, this.solution == null ? null : this.solution.clone());
+        }
+    }
+
+    private final class Segment extends LinkedHashMap<Long, Entry> {
+        private final int capacity;
+
+        private Segment(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Long, Entry> eldest) {
+            if (this.size() > this.capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final class Worker {
+        private final BitMaskSolver solver;
+        private final byte[] canonical = new byte[totalCells];
+        private final byte[] solution = new byte[totalCells];
+        private Canonicalizer canonicalizer;
+
+        private Worker() {
+            this.solver = new BitMaskSolver(subFieldSize, subFields);
+            this.solver.setPropagation(Technique.HIDDEN_PAIR);
+        }
+
+        private Canonicalizer getCanonicalizer() {
+            if (this.canonicalizer == null) {
+                this.canonicalizer = new Canonicalizer(subFieldSize, subFields);
+            }
+            return this.canonicalizer;
+        }
+
+        private Entry solve(final byte[] cells, final BooleanSupplier stopCondition) {
+            final int found;
+            this.solver.setStopCondition(stopCondition);
+            try {
+                found = this.solver.load(cells) ? this.solver.solve(2, this.solution) : 0;
+            } finally {
+                this.solver.setStopCondition(null);
+            }
+            if (stopCondition != null && stopCondition.getAsBoolean()) {
+                return null;
+            }
+            switch (found) {
+                case 0:
+                    return new Entry(Solvability.NO_SOLUTIONS, null);
+                case 1:
+                    return new Entry(Solvability.UNIQUE, this.solution.clone());
+                default:
+                    return new Entry(Solvability.MULTIPLE, this.solution.clone());
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.taltechleon.sudoku.model;
+
+import java.time.Duration;
+
+/**
+ * Cancellation token with optional deadline, solvers poll it every few hundred search nodes.
+ * Can be cancelled from any thread, one control can be shared by several sequential solve calls.
+ */
+public final class SolveControl {
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+    private volatile boolean timedOut;
+
+    private SolveControl(final long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static SolveControl unlimited() {
+        return new SolveControl(NO_DEADLINE);
+    }
+
+    public static SolveControl withTimeout(final Duration timeout) {
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("Timeout must not be negative: " + timeout);
+        }
+        final long nanos = timeout.toNanos();
+        // keep away from overflow for huge timeouts
+        return new SolveControl(nanos >= NO_DEADLINE / 2 ? NO_DEADLINE : System.nanoTime() + nanos);
+    }
+
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    public boolean isTimedOut() {
+        return this.timedOut;
+    }
+
+    public boolean shouldStop() {
+        if (this.cancelled || this.timedOut) {
+            return true;
+        }
+        if (this.deadlineNanos != NO_DEADLINE && System.nanoTime() - this.deadlineNanos >= 0L) {
+            this.timedOut = true;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,201 @@
+package com.taltechleon.sudoku.model;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Iterative depth-first search with explicit stack of branch frames, can be stepped by node budget,
+ * paused between steps, saved into bytes and restored later. Restore replays branch decisions over
+ * the initial field, propagation is deterministic so the same search state is rebuilt.
+ */
+public final class SolveCursor {
+    private static final int CHECKPOINT_MAGIC = 0x53435552;
+    private static final int CHECKPOINT_VERSION = 1;
+
+    private final BitMaskSolver solver;
+    private final byte[] initialField;
+    private final byte[] solution;
+
+    private final int[] frameOffsets;
+    private final int[] frameVariants;
+    private final int[] frameValues;
+    private final int[] framePlacedMarks;
+    private final int[] frameExclusionMarks;
+    private int depth;
+
+    private boolean needExpand;
+    private boolean finished;
+    private long visitedNodes;
+    private long foundSolutions;
+
+    public SolveCursor(final int subFieldSize, final int subFields, final Technique propagation) {
+        this.solver = new BitMaskSolver(subFieldSize, subFields);
+        this.solver.setPropagation(propagation);
+        final int totalCells = this.solver.getTotalCells();
+        this.initialField = new byte[totalCells];
+        this.solution = new byte[totalCells];
+        this.frameOffsets = new int[totalCells];
+        this.frameVariants = new int[totalCells];
+        this.frameValues = new int[totalCells];
+        this.framePlacedMarks = new int[totalCells];
+        this.frameExclusionMarks = new int[totalCells];
+        this.finished = true;
+    }
+
+    public static SolveCursor restore(final byte[] checkpoint) {
+        final ByteBuffer buffer = ByteBuffer.wrap(checkpoint);
+        if (buffer.getInt() != CHECKPOINT_MAGIC) {
+            throw new IllegalArgumentException("Not a solve cursor checkpoint");
+        }
+        final int version = buffer.getInt();
+        if (version != CHECKPOINT_VERSION) {
+            throw new IllegalArgumentException("Unsupported checkpoint version: " + version);
+        }
+        final int subFieldSize = buffer.get();
+        final int subFields = buffer.get();
+        final int propagationOrdinal = buffer.get();
+        final SolveCursor cursor = new SolveCursor(subFieldSize, subFields,
+                propagationOrdinal < 0 ? null : Technique.values()[propagationOrdinal]);
+
+        buffer.get(cursor.initialField);
+        final boolean needExpand = buffer.get() != 0;
+        final boolean finished = buffer.get() != 0;
+        final long visitedNodes = buffer.getLong();
+        final long foundSolutions = buffer.getLong();
+        final int depth = buffer.getInt();
+
+        if (!cursor.start(cursor.initialField)) {
+            throw new IllegalArgumentException("Checkpoint contains wrong field");
+        }
+        for (int i = 0; i < depth; i++) {
+            final int offset = buffer.getInt();
+            final int variants = buffer.getInt();
+            final int value = buffer.getInt();
+            if (!cursor.solver.propagate() || cursor.solver.cells()[offset] != 0) {
+                throw new IllegalArgumentException("Checkpoint doesn't match the field");
+            }
+            cursor.pushFrame(offset, variants);
+            if (value != 0) {
+                cursor.frameValues[i] = value;
+                cursor.solver.assign(offset, value);
+            }
+        }
+        cursor.needExpand = needExpand;
+        cursor.finished = finished;
+        cursor.visitedNodes = visitedNodes;
+        cursor.foundSolutions = foundSolutions;
+        return cursor;
+    }
+
+    public boolean start(final byte[] field) {
+        System.arraycopy(field, 0, this.initialField, 0, this.initialField.length);
+        this.depth = 0;
+        this.visitedNodes = 0L;
+        this.foundSolutions = 0L;
+        final boolean loaded = this.solver.load(field);
+        this.needExpand = loaded;
+        this.finished = !loaded;
+        return loaded;
+    }
+
+    public Status step(final long maxNodes) {
+        long budget = maxNodes;
+        while (!this.finished) {
+            if (this.needExpand) {
+                if (budget <= 0L) {
+                    return Status.PAUSED;
+                }
+                budget--;
+                this.visitedNodes++;
+                this.needExpand = false;
+                if (this.solver.propagate()) {
+                    if (this.solver.getEmptyCount() == 0) {
+                        this.foundSolutions++;
+                        System.arraycopy(this.solver.cells(), 0, this.solution, 0, this.solution.length);
+                        return Status.SOLUTION;
+                    }
+                    final int offset = this.solver.findBranchCell();
+                    this.pushFrame(offset, this.solver.candidates(offset));
+                }
+            }
+            this.advance();
+        }
+        return Status.FINISHED;
+    }
+
+    private void pushFrame(final int offset, final int variants) {
+        this.frameOffsets[this.depth] = offset;
+        this.frameVariants[this.depth] = variants;
+        this.frameValues[this.depth] = 0;
+        this.framePlacedMarks[this.depth] = this.solver.getPlacedMark();
+        this.frameExclusionMarks[this.depth] = this.solver.getExclusionMark();
+        this.depth++;
+    }
+
+    private void advance() {
+        while (this.depth > 0) {
+            final int top = this.depth - 1;
+            this.solver.undoTo(this.framePlacedMarks[top], this.frameExclusionMarks[top]);
+            final int variants = this.frameVariants[top];
+            if (variants == 0) {
+                this.depth--;
+                continue;
+            }
+            final int bit = variants & -variants;
+            this.frameVariants[top] = variants ^ bit;
+            this.frameValues[top] = Integer.numberOfTrailingZeros(bit) + 1;
+            this.solver.assign(this.frameOffsets[top], this.frameValues[top]);
+            this.needExpand = true;
+            return;
+        }
+        this.finished = true;
+    }
+
+    public byte[] checkpoint() {
+        final ByteBuffer buffer = ByteBuffer.allocate(
+                4 * 2 + 3 + this.initialField.length + 2 + 8 * 2 + 4 + this.depth * 4 * 3);
+        final Technique propagation = this.solver.getPropagation();
+        buffer.putInt(CHECKPOINT_MAGIC)
+                .putInt(CHECKPOINT_VERSION)
+                .put((byte) this.solver.getSubFieldSize())
+                .put((byte) this.solver.getSubFields())
+                .put((byte) (propagation == null ? -1 : propagation.ordinal()))
+                .put(this.initialField)
+                .put((byte) (this.needExpand ? 1 : 0))
+                .put((byte) (this.finished ? 1 : 0))
+                .putLong(this.visitedNodes)
+                .putLong(this.foundSolutions)
+                .putInt(this.depth);
+        for (int i = 0; i < this.depth; i++) {
+            buffer.putInt(this.frameOffsets[i])
+                    .putInt(this.frameVariants[i])
+                    .putInt(this.frameValues[i]);
+        }
+        return buffer.array();
+    }
+
+    public void copySolution(final byte[] buffer) {
+        System.arraycopy(this.solution, 0, buffer, 0, this.solution.length);
+    }
+
+    public boolean isFinished() {
+        return this.finished;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public long getVisitedNodes() {
+        return this.visitedNodes;
+    }
+
+    public long getFoundSolutions() {
+        return this.foundSolutions;
+    }
+
+    public enum Status {
+        PAUSED,
+        SOLUTION,
+        FINISHED
+    }
+}
@@ -0,0 +1,61 @@
+package com.taltechleon.sudoku.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of search work collected by solvers and latency histogram of whole solves. Solvers keep
+ * own plain counters during a search and add them here when the search ends, so enabled statistics
+ * doesn't slow down the hot path and disabled one costs a null check per node. Thread safe, one
+ * instance can be shared between solvers.
+ */
+public final class SolverStatistics {
+    private final LongAdder solves = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder backtracks = new LongAdder();
+    private final LongAdder guesses = new LongAdder();
+    private final LongAdder eliminations = new LongAdder();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    void addSearch(final long nodes, final long backtracks, final long guesses, final long eliminations,
+                   final int maxDepth) {
+        this.nodes.add(nodes);
+        this.backtracks.add(backtracks);
+        this.guesses.add(guesses);
+        this.eliminations.add(eliminations);
+        this.maxDepth.accumulateAndGet(maxDepth, Math::max);
+    }
+
+    void recordSolve(final long nanos) {
+        this.solves.increment();
+        this.latency.record(nanos);
+    }
+
+    public LatencyHistogram getLatency() {
+        return this.latency;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this.solves.sum(), this.nodes.sum(), this.backtracks.sum(), this.guesses.sum(),
+                this.eliminations.sum(), this.maxDepth.get());
+    }
+
+    public void reset() {
+        this.solves.reset();
+        this.nodes.reset();
+        this.backtracks.reset();
+        this.guesses.reset();
+        this.eliminations.reset();
+        this.maxDepth.set(0);
+        this.latency.reset();
+    }
+
+    /**
+     * Eliminations are values placed or candidates excluded by propagation, guesses are values tried
+     * in branch cells, backtracks are dead ends.
+     */
+    public record Snapshot(long solves, long nodes, long backtracks, long guesses, long eliminations,
+                           int maxDepth) {
+    }
+}
@@ -1,12 +1,26 @@
 package com.taltechleon.sudoku.model;
 
+import com.taltechleon.sudoku.io.SolutionStore;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public final class SudokuModel {
+    private static final VarHandle LONG_FROM_BYTES =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
     private final byte[] sudokuField;
     private final int subFieldSize;
     private final int subFields;
@@ -16,6 +30,19 @@ public final class SudokuModel {
     private final int sumOfAllValues;
     private final int totalCells;
 
+    private long fingerprint;
+    private boolean fingerprintValid;
+
+    private BitMaskSolver bitMaskSolver;
+    private BitMaskSolver propagationSolver;
+    private BitMaskSolver generatorSolver;
+    private DancingLinksSolver dancingLinksSolver;
+    private ParallelSolver parallelSolver;
+    private SolverStatistics statistics;
+    // follows cell edits and loads, bulk field rewrites mark it stale and it is reloaded once on demand
+    private ConflictTracker conflictTracker;
+    private boolean conflictsValid;
+
     private SudokuModel(final SudokuModel solver) {
         this(solver.subFieldSize, solver.subFields);
         System.arraycopy(solver.sudokuField, 0, this.sudokuField, 0, this.totalCells);
@@ -63,204 +90,207 @@ public final class SudokuModel {
                     "Value must be in 0.." + (this.edgeSize - 1) + ": " + value);
         }
         this.sudokuField[col + row * this.edgeSize] = (byte) value;
+        this.fingerprintValid = false;
+        if (this.conflictsValid) {
+            this.conflictTracker.set(col, row, value);
+        }
     }
 
-    private SudokuModel transpose() {
-        final byte[] newArray = Arrays.copyOf(this.sudokuField, this.sudokuField.length);
-        for (int row = 0; row < this.edgeSize; row++) {
-            for (int col = 0; col < this.edgeSize; col++) {
-                final byte value = this.sudokuField[col + row * this.edgeSize];
-                newArray[col * this.edgeSize + row] = value;
+    // random line order where lines of the same band stay together
+    private static int[] makeLinePermutation(final int bands, final int bandSize, final RandomGenerator rnd) {
+        final int[] result = new int[bands * bandSize];
+        int index = 0;
+        for (final int band : makePermutation(bands, rnd)) {
+            for (final int line : makePermutation(bandSize, rnd)) {
+                result[index++] = band * bandSize + line;
             }
         }
-        System.arraycopy(newArray, 0, this.sudokuField, 0, newArray.length);
-        return this;
+        return result;
     }
 
-    private SudokuModel swapRows(final int subFieldIndex, final int row1, final int row2) {
-        if (row1 < 0 || row1 >= this.subFieldSize) {
-            throw new IllegalArgumentException("Wrong row1");
-        }
-        if (row2 < 0 || row2 >= this.subFieldSize) {
-            throw new IllegalArgumentException("Wrong row2");
-        }
-        if (subFieldIndex < 0 || subFieldIndex >= this.subFields) {
-            throw new IllegalArgumentException("Wrong sub field");
+    private static int[] makePermutation(final int size, final RandomGenerator rnd) {
+        final int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            final int j = rnd.nextInt(i + 1);
+            result[i] = result[j];
+            result[j] = i;
         }
+        return result;
+    }
 
-        if (row1 != row2) {
-            int offsetRow1 = row1 * this.edgeSize + subFieldIndex * this.subFieldSize * this.edgeSize;
-            int offsetRow2 = row2 * this.edgeSize + subFieldIndex * this.subFieldSize * this.edgeSize;
-            for (int i = 0; i < this.edgeSize; i++) {
-                final byte a = this.sudokuField[offsetRow1];
-                final byte b = this.sudokuField[offsetRow2];
-                this.sudokuField[offsetRow1] = b;
-                this.sudokuField[offsetRow2] = a;
-                offsetRow1++;
-                offsetRow2++;
+    /**
+     * Fills the field by solved grid made from the base one by random relabeling of values, permutation
+     * of bands, stacks, rows inside bands, columns inside stacks and optional transposition.
+     */
+    public SudokuModel fillRandom(final RandomGenerator rnd) {
+        this.fillBase();
+        final byte[] base = this.sudokuField.clone();
+        final int[] rowOrder = makeLinePermutation(this.subFields, this.subFieldSize, rnd);
+        final int[] colOrder = makeLinePermutation(this.subFields, this.subFieldSize, rnd);
+        final int[] values = makePermutation(this.edgeSize, rnd);
+        final boolean transpose = rnd.nextBoolean();
+        for (int row = 0; row < this.edgeSize; row++) {
+            final int baseRowOffset = rowOrder[row] * this.edgeSize;
+            for (int col = 0; col < this.edgeSize; col++) {
+                final int value = values[base[baseRowOffset + colOrder[col]] - 1] + 1;
+                final int offset = transpose ? col * this.edgeSize + row : row * this.edgeSize + col;
+                this.sudokuField[offset] = (byte) value;
             }
         }
-
         return this;
     }
 
-    private SudokuModel swapSubFieldCols(final int subField1, final int subField2) {
-        if (subField1 < 0 || subField1 >= this.subFields) {
-            throw new IllegalArgumentException("Wrong sub field 1");
-        }
-        if (subField2 < 0 || subField2 >= this.subFields) {
-            throw new IllegalArgumentException("Wrong sub field 2");
-        }
+    public void generate(final int clues) {
+        this.generate(clues, ThreadLocalRandom.current(), null);
+    }
 
-        if (subField1 != subField2) {
-            int offset1 = subField1 * this.subFieldSize;
-            int offset2 = subField2 * this.subFieldSize;
+    // returns COMPLETED or status of stop, the field content is undefined if generation was stopped
+    public SolveStatus generate(final int clues, final SolveControl control) {
+        this.generate(clues, ThreadLocalRandom.current(), makeStopCondition(control));
+        return stopStatusOf(control);
+    }
 
-            for (int i = 0; i < this.edgeSize; i++) {
-                for (int j = 0; j < this.subFieldSize; j++) {
-                    final int offsetA = offset1 + j;
-                    final int offsetB = offset2 + j;
+    // the same seed always gives the same puzzle for the same field geometry
+    public void generate(final int clues, final long seed) {
+        this.generate(clues, new SplittableRandom(seed), null);
+    }
 
-                    final byte a = this.sudokuField[offsetA];
-                    final byte b = this.sudokuField[offsetB];
-                    this.sudokuField[offsetA] = b;
-                    this.sudokuField[offsetB] = a;
-                }
-                offset1 += this.edgeSize;
-                offset2 += this.edgeSize;
-            }
-        }
+    public SolveStatus generate(final int clues, final long seed, final SolveControl control) {
+        this.generate(clues, new SplittableRandom(seed), makeStopCondition(control));
+        return stopStatusOf(control);
+    }
 
-        return this;
+    // independent seed of a puzzle in a bulk sequence, doesn't depend on order or thread of generation
+    public static long puzzleSeed(final long baseSeed, final long index) {
+        // splitmix64 over golden gamma stepping
+        long z = baseSeed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
 
-    private SudokuModel swapSubFieldRows(final int subField1, final int subField2) {
-        if (subField1 < 0 || subField1 >= this.subFields) {
-            throw new IllegalArgumentException("Wrong sub field 1");
+    // races independent attempts on the executor, the first generated puzzle wins and others are interrupted
+    public SolveStatus generate(final int clues, final ExecutorService executor, final int attempts,
+                                final SolveControl control) {
+        if (attempts <= 0) {
+            throw new IllegalArgumentException("Number of attempts must be positive: " + attempts);
         }
-        if (subField2 < 0 || subField2 >= this.subFields) {
-            throw new IllegalArgumentException("Wrong sub field 2");
+        final List<Callable<SudokuModel>> tasks = new ArrayList<>(attempts);
+        for (int i = 0; i < attempts; i++) {
+            tasks.add(() -> {
+                final Thread worker = Thread.currentThread();
+                final BooleanSupplier stopCondition = () -> worker.isInterrupted() || control.shouldStop();
+                final SudokuModel candidate = new SudokuModel(this.subFieldSize, this.subFields);
+                candidate.generate(clues, ThreadLocalRandom.current(), stopCondition);
+                if (stopCondition.getAsBoolean()) {
+                    throw new CancellationException("Generation attempt stopped");
+                }
+                return candidate;
+            });
         }
-
-        if (subField1 != subField2) {
-            int offset1 = subField1 * this.subFieldSize * this.edgeSize;
-            int offset2 = subField2 * this.subFieldSize * this.edgeSize;
-
-            for (int i = 0; i < this.edgeSize * this.subFieldSize; i++) {
-                final byte a = this.sudokuField[offset1];
-                final byte b = this.sudokuField[offset2];
-                this.sudokuField[offset1] = b;
-                this.sudokuField[offset2] = a;
-                offset1++;
-                offset2++;
+        try {
+            final SudokuModel winner = executor.invokeAny(tasks);
+            System.arraycopy(winner.sudokuField, 0, this.sudokuField, 0, this.totalCells);
+            this.fingerprintValid = false;
+            this.conflictsValid = false;
+            return SolveStatus.COMPLETED;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            control.cancel();
+            return SolveStatus.CANCELLED;
+        } catch (ExecutionException ex) {
+            if (control.shouldStop()) {
+                return stopStatusOf(control);
             }
+            throw new IllegalStateException("Error during puzzle generation", ex.getCause());
         }
-        return this;
     }
 
-    private SudokuModel swapColumns(final int subField, final int col1, final int col2) {
-        if (col1 < 0 || col1 >= this.subFieldSize) {
-            throw new IllegalArgumentException("Wrong col1");
-        }
-        if (col2 < 0 || col2 >= this.subFieldSize) {
-            throw new IllegalArgumentException("Wrong col2");
-        }
-        if (subField < 0 || subField >= this.subFields) {
-            throw new IllegalArgumentException("Wrong sub field");
-        }
+    private static SolveStatus stopStatusOf(final SolveControl control) {
+        return control.isCancelled() ? SolveStatus.CANCELLED
+                : control.isTimedOut() ? SolveStatus.TIMED_OUT : SolveStatus.COMPLETED;
+    }
 
-        if (col1 != col2) {
-            int offsetCol1 = col1 + subField * this.subFieldSize;
-            int offsetCol2 = col2 + subField * this.subFieldSize;
-            for (int i = 0; i < this.edgeSize; i++) {
-                final byte a = this.sudokuField[offsetCol1];
-                final byte b = this.sudokuField[offsetCol2];
-                this.sudokuField[offsetCol1] = b;
-                this.sudokuField[offsetCol2] = a;
-                offsetCol1 += this.edgeSize;
-                offsetCol2 += this.edgeSize;
+    private static BooleanSupplier makeStopCondition(final SolveControl control) {
+        final Thread caller = Thread.currentThread();
+        return () -> {
+            if (caller.isInterrupted()) {
+                control.cancel();
             }
-        }
+            return control.shouldStop();
+        };
+    }
 
-        return this;
+    private static boolean isStopped(final BooleanSupplier stopCondition) {
+        return stopCondition != null && stopCondition.getAsBoolean();
     }
 
-    public void generate(final int clues) {
+    private void generate(final int clues, final RandomGenerator rnd, final BooleanSupplier stopCondition) {
         if (clues < 17) {
             throw new IllegalArgumentException(
                     "Number of clues can't be less than 17, see https://en.wikipedia.org/wiki/Mathematics_of_Sudoku");
         }
 
-        final Random rnd = ThreadLocalRandom.current();
-
-        List<Integer> nonEmptyOffsets = new ArrayList<>();
-        final int MAX_ATTEMPTS_BEFORE_REGENERATION = 50;
-
-        boolean found = false;
-        while (!found) {
-            this.fillBase();
-            for (int i = 0; i < 500_000; i++) {
-                switch (rnd.nextInt(5)) {
-                    case 0:
-                        this.transpose();
-                        break;
-                    case 1:
-                        this.swapSubFieldCols(rnd.nextInt(this.subFields), rnd.nextInt(this.subFields));
-                        break;
-                    case 2:
-                        this.swapSubFieldRows(rnd.nextInt(this.subFields), rnd.nextInt(this.subFields));
-                        break;
-                    case 3:
-                        this.swapColumns(rnd.nextInt(this.subFields), rnd.nextInt(this.subFieldSize),
-                                rnd.nextInt(this.subFieldSize));
-                        break;
-                    case 4:
-                        this.swapRows(rnd.nextInt(this.subFields), rnd.nextInt(this.subFieldSize),
-                                rnd.nextInt(this.subFieldSize));
-                        break;
-                }
-            }
+        this.fingerprintValid = false;
+        this.conflictsValid = false;
+        final BitMaskSolver solver = this.getGeneratorSolver();
+        final int[] offsets = new int[this.totalCells];
+        final byte[] buffer = new byte[this.totalCells];
 
-            int cellsToRemove = this.totalCells - clues;
-            int attempts = MAX_ATTEMPTS_BEFORE_REGENERATION;
-            while (cellsToRemove > 0) {
-                nonEmptyOffsets.clear();
-                for (int i = 0; i < this.totalCells; i++) {
-                    if (this.sudokuField[i] != 0) {
-                        nonEmptyOffsets.add(i);
-                    }
-                }
-                if (nonEmptyOffsets.isEmpty()) {
-                    break;
-                }
-                Collections.shuffle(nonEmptyOffsets, rnd);
-                final int randomOffset = nonEmptyOffsets.get(0);
-
-                final byte cellValue = this.sudokuField[randomOffset];
-                this.sudokuField[randomOffset] = 0;
-
-                Set<SudokuModel> solutions = this.solve(2);
-
-                if (solutions.size() != 1) {
-                    // problem, no unique solution so we should try another cell
-                    this.sudokuField[randomOffset] = cellValue;
-                    attempts--;
-                    if (attempts == 0) {
-                        // too many attempts, looks like too big problem we should regenerate field and remake steps
-                        found = false;
-                        break;
-                    }
-                } else {
-                    // ok, we ca move forward
-                    cellsToRemove--;
-                    attempts = MAX_ATTEMPTS_BEFORE_REGENERATION;
-                    found = true;
+        solver.setStopCondition(stopCondition);
+        try {
+            do {
+                if (isStopped(stopCondition)) {
+                    return;
                 }
+                this.fillRandom(rnd);
+            } while (!this.removeClues(clues, solver, offsets, buffer, rnd, stopCondition));
+        } finally {
+            solver.setStopCondition(null);
+        }
+    }
+
+    // cells are tried in random order and removed while the solution stays unique, removal stops as soon
+    // as the target number of clues is reached so untried cells may still be removable and the result
+    // is not guaranteed to be minimal; false if the target is not reachable for the current grid
+    private boolean removeClues(final int clues, final BitMaskSolver solver, final int[] offsets,
+                                final byte[] buffer, final RandomGenerator rnd,
+                                final BooleanSupplier stopCondition) {
+        for (int i = 0; i < this.totalCells; i++) {
+            final int j = rnd.nextInt(i + 1);
+            offsets[i] = offsets[j];
+            offsets[j] = i;
+        }
+
+        int filled = this.totalCells;
+        for (int i = 0; i < this.totalCells && filled > clues; i++) {
+            if (filled - (this.totalCells - i) > clues) {
+                return false;
+            }
+            final int offset = offsets[i];
+            final byte value = this.sudokuField[offset];
+            this.sudokuField[offset] = 0;
+            // the known solution stays the only one if the cell can't take any other value
+            solver.load(this.sudokuField);
+            solver.exclude(offset, 1 << (value - 1));
+            final boolean unique = solver.solve(1, buffer) == 0;
+            if (isStopped(stopCondition)) {
+                // interrupted search can't prove uniqueness
+                this.sudokuField[offset] = value;
+                return false;
+            }
+            if (unique) {
+                filled--;
+            } else {
+                this.sudokuField[offset] = value;
             }
         }
+        return filled == clues;
     }
 
     public SudokuModel fillBase() {
+        this.fingerprintValid = false;
+        this.conflictsValid = false;
         final List<Integer> values =
                 IntStream.range(1, this.edgeSize + 1).boxed().collect(Collectors.toCollection(
                         ArrayList::new));
@@ -295,22 +325,56 @@ public final class SudokuModel {
             return true;
         }
         if (obj instanceof SudokuModel that) {
-            return Arrays.equals(this.sudokuField, that.sudokuField);
+            return this.fingerprint() == that.fingerprint()
+                    && Arrays.equals(this.sudokuField, that.sudokuField);
         }
         return false;
     }
 
     @Override
     public int hashCode() {
-        int sum = 0;
-        for (byte b : this.sudokuField) {
-            sum += b & 0xFF;
+        final long value = this.fingerprint();
+        return (int) (value ^ (value >>> 32));
+    }
+
+    public long fingerprint() {
+        if (!this.fingerprintValid) {
+            this.fingerprint = fingerprint(this.sudokuField);
+            this.fingerprintValid = true;
+        }
+        return this.fingerprint;
+    }
+
+    // 64 bit hash over cells, eight cells are mixed at once
+    public static long fingerprint(final byte[] cells) {
+        long hash = 0x9E3779B97F4A7C15L ^ cells.length;
+        int offset = 0;
+        for (; offset + Long.BYTES <= cells.length; offset += Long.BYTES) {
+            hash = mixIntoHash(hash, (long) LONG_FROM_BYTES.get(cells, offset));
         }
-        return sum;
+        long tail = 0L;
+        for (int shift = 0; offset < cells.length; offset++, shift += 8) {
+            tail |= (cells[offset] & 0xFFL) << shift;
+        }
+        hash = mixIntoHash(hash, tail);
+
+        // murmur3 finalizer
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long mixIntoHash(final long hash, final long value) {
+        final long mixed = Long.rotateLeft(value * 0x87C37B91114253D5L, 31) * 0x4CF5AD432745937FL;
+        return Long.rotateLeft(hash ^ mixed, 27) * 5 + 0x52DCE729L;
     }
 
     private Set<SudokuModel> solveDepthFirstAndBacktrack(final List<CellVariant> cellVariants,
                                                          final int limitSolutions,
+                                                         final BooleanSupplier stopCondition,
                                                          final Consumer<SudokuModel> foundVariantConsumer) {
 
         if (cellVariants.isEmpty()) {
@@ -321,6 +385,9 @@ public final class SudokuModel {
         Set<SudokuModel> result = null;
 
         for (final int v : head.variants) {
+            if (isStopped(stopCondition)) {
+                break;
+            }
             this.sudokuField[head.offset] = (byte) v;
             final List<CellVariant> restVariants = this.findCurrentVariantsAndSortThem();
             if (restVariants.isEmpty()) {
@@ -334,7 +401,8 @@ public final class SudokuModel {
                 }
             } else {
                 final Set<SudokuModel> solutions =
-                        this.solveDepthFirstAndBacktrack(restVariants, limitSolutions, foundVariantConsumer);
+                        this.solveDepthFirstAndBacktrack(restVariants, limitSolutions, stopCondition,
+                                foundVariantConsumer);
                 if (!solutions.isEmpty()) {
                     if (result == null) {
                         result = new HashSet<>();
@@ -359,10 +427,173 @@ public final class SudokuModel {
 
     public Set<SudokuModel> solve(final int limitSolutions,
                                   final Consumer<SudokuModel> foundVariantConsumer) {
+        return this.solve(limitSolutions, SolverEngine.CONSTRAINT_PROPAGATION, foundVariantConsumer);
+    }
+
+    public Set<SudokuModel> solve(final int limitSolutions, final SolverEngine engine,
+                                  final Consumer<SudokuModel> foundVariantConsumer) {
+        return this.solve(limitSolutions, engine, (BooleanSupplier) null, foundVariantConsumer);
+    }
+
+    // stops search by cancel, deadline or interruption of the calling thread, returns found part
+    public SolveResult solve(final int limitSolutions, final SolverEngine engine, final SolveControl control,
+                             final Consumer<SudokuModel> foundVariantConsumer) {
+        final Set<SudokuModel> solutions =
+                this.solve(limitSolutions, engine, makeStopCondition(control), foundVariantConsumer);
+        final SolveStatus status;
+        if (solutions.size() >= limitSolutions) {
+            status = SolveStatus.LIMIT_REACHED;
+        } else if (control.isCancelled()) {
+            status = SolveStatus.CANCELLED;
+        } else if (control.isTimedOut()) {
+            status = SolveStatus.TIMED_OUT;
+        } else {
+            status = SolveStatus.COMPLETED;
+        }
+        return new SolveResult(solutions, status);
+    }
+
+    // null disables collecting, statistics is not copied into found solutions
+    public void setStatistics(final SolverStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public SolverStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    private Set<SudokuModel> solve(final int limitSolutions, final SolverEngine engine,
+                                   final BooleanSupplier stopCondition,
+                                   final Consumer<SudokuModel> foundVariantConsumer) {
+        final SolverStatistics solveStatistics = this.statistics;
+        if (solveStatistics == null) {
+            return this.solveWithEngine(limitSolutions, engine, stopCondition, foundVariantConsumer);
+        }
+        final long start = System.nanoTime();
+        try {
+            return this.solveWithEngine(limitSolutions, engine, stopCondition, foundVariantConsumer);
+        } finally {
+            solveStatistics.recordSolve(System.nanoTime() - start);
+        }
+    }
+
+    private Set<SudokuModel> solveWithEngine(final int limitSolutions, final SolverEngine engine,
+                                             final BooleanSupplier stopCondition,
+                                             final Consumer<SudokuModel> foundVariantConsumer) {
+        switch (engine) {
+            case BACKTRACKING:
+                return this.solveByBacktracking(limitSolutions, stopCondition, foundVariantConsumer);
+            case BIT_MASK: {
+                if (this.bitMaskSolver == null) {
+                    this.bitMaskSolver = new BitMaskSolver(this.subFieldSize, this.subFields);
+                }
+                return this.solveBy(this.bitMaskSolver, limitSolutions, stopCondition, foundVariantConsumer);
+            }
+            case CONSTRAINT_PROPAGATION:
+                return this.solveBy(this.getPropagationSolver(), limitSolutions, stopCondition, foundVariantConsumer);
+            case DANCING_LINKS: {
+                if (this.dancingLinksSolver == null) {
+                    this.dancingLinksSolver = new DancingLinksSolver(this.subFieldSize, this.subFields);
+                }
+                return this.solveBy(this.dancingLinksSolver, limitSolutions, stopCondition, foundVariantConsumer);
+            }
+            case PARALLEL: {
+                if (this.parallelSolver == null) {
+                    this.parallelSolver = new ParallelSolver(this.subFieldSize, this.subFields);
+                }
+                return this.solveBy(this.parallelSolver, limitSolutions, stopCondition, foundVariantConsumer);
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported engine: " + engine);
+        }
+    }
+
+    // steady state doesn't allocate memory, returns number of found solutions
+    public int solveInto(final int limitSolutions, final byte[] firstSolution) {
+        final BitMaskSolver solver = this.getPropagationSolver();
+        if (!solver.load(this.sudokuField)) {
+            return 0;
+        }
+        return solver.solve(limitSolutions, firstSolution);
+    }
+
+    // packs solutions into the store instead of heap objects, the store can be bigger than the heap
+    public SolveStatus enumerate(final int limitSolutions, final SolutionStore store, final SolveControl control) {
+        // deep propagation doesn't pay off when almost every branch ends with a solution
+        if (this.bitMaskSolver == null) {
+            this.bitMaskSolver = new BitMaskSolver(this.subFieldSize, this.subFields);
+        }
+        final BitMaskSolver solver = this.bitMaskSolver;
+        if (!solver.load(this.sudokuField)) {
+            return SolveStatus.COMPLETED;
+        }
+        final int found;
+        solver.setStopCondition(makeStopCondition(control));
+        try {
+            found = solver.solve(limitSolutions, store::add);
+        } finally {
+            solver.setStopCondition(null);
+        }
+        return found >= limitSolutions ? SolveStatus.LIMIT_REACHED : stopStatusOf(control);
+    }
+
+    public SolveCursor makeSolveCursor() {
+        final SolveCursor cursor = new SolveCursor(this.subFieldSize, this.subFields, Technique.HIDDEN_PAIR);
+        cursor.start(this.sudokuField);
+        return cursor;
+    }
+
+    private BitMaskSolver getPropagationSolver() {
+        if (this.propagationSolver == null) {
+            this.propagationSolver = new BitMaskSolver(this.subFieldSize, this.subFields);
+            this.propagationSolver.setPropagation(Technique.HIDDEN_PAIR);
+        }
+        return this.propagationSolver;
+    }
+
+    // cheap propagation is faster for the mostly filled fields checked during generation
+    private BitMaskSolver getGeneratorSolver() {
+        if (this.generatorSolver == null) {
+            this.generatorSolver = new BitMaskSolver(this.subFieldSize, this.subFields);
+            this.generatorSolver.setPropagation(Technique.HIDDEN_SINGLE);
+        }
+        return this.generatorSolver;
+    }
+
+    private Set<SudokuModel> solveBy(final FieldSolver solver, final int limitSolutions,
+                                     final BooleanSupplier stopCondition,
+                                     final Consumer<SudokuModel> foundVariantConsumer) {
+        if (!solver.load(this.sudokuField)) {
+            return Set.of();
+        }
+        final Set<SudokuModel> result = new HashSet<>();
+        solver.setStopCondition(stopCondition);
+        solver.setStatistics(this.statistics);
+        try {
+            solver.solve(limitSolutions, cells -> {
+                final SudokuModel foundVariant = new SudokuModel(this.subFieldSize, this.subFields);
+                System.arraycopy(cells, 0, foundVariant.sudokuField, 0, this.totalCells);
+                // parallel solver calls from several threads
+                synchronized (result) {
+                    result.add(foundVariant);
+                    foundVariantConsumer.accept(foundVariant);
+                }
+            });
+        } finally {
+            solver.setStopCondition(null);
+            solver.setStatistics(null);
+        }
+        return result;
+    }
+
+    private Set<SudokuModel> solveByBacktracking(final int limitSolutions,
+                                                 final BooleanSupplier stopCondition,
+                                                 final Consumer<SudokuModel> foundVariantConsumer) {
         final List<CellVariant> initialVariants = findCurrentVariantsAndSortThem();
 
         final Set<SudokuModel> foundSolutions =
-                this.solveDepthFirstAndBacktrack(initialVariants, limitSolutions, foundVariantConsumer);
+                this.solveDepthFirstAndBacktrack(initialVariants, limitSolutions, stopCondition,
+                        foundVariantConsumer);
         for (CellVariant v : initialVariants) {
             this.sudokuField[v.offset] = 0;
         }
@@ -504,9 +735,13 @@ public final class SudokuModel {
                     "Unexpected data size: " + this.sudokuField.length + " <> " + array.length);
         }
         System.arraycopy(array, 0, this.sudokuField, 0, array.length);
+        this.fingerprintValid = false;
+        this.syncConflicts();
     }
 
     public void loadFromText(final String fieldAsText) {
+        this.fingerprintValid = false;
+        this.conflictsValid = false;
         final String[] lines = fieldAsText.split("\\n");
 
         int counterLines = 0;
@@ -545,6 +780,7 @@ public final class SudokuModel {
         if (counterLines != this.edgeSize) {
             throw new IllegalStateException("Unexpected number of lines: " + counterLines);
         }
+        this.syncConflicts();
     }
 
     public boolean isNoEmptyCells() {
@@ -604,99 +840,22 @@ public final class SudokuModel {
         return true;
     }
 
-    public List<Error> findErrors() {
-        final List<Error> foundErrors = new ArrayList<>();
-
-        final Map<Integer, Integer> foundValues = new HashMap<>();
-        // check rows
-        for (int row = 0; row < this.edgeSize; row++) {
-            foundValues.clear();
-            final int rowOffset = row * this.edgeSize;
-            for (int col = 0; col < this.edgeSize; col++) {
-                final int value = this.sudokuField[rowOffset + col] & 0xFF;
-                if (value == 0) {
-                    continue;
-                }
-                foundValues.merge(value, 1, Integer::sum);
-            }
-            for (int col = 0; col < this.edgeSize; col++) {
-                final int value = this.sudokuField[rowOffset + col] & 0xFF;
-                if (value == 0) {
-                    continue;
-                }
-                if (foundValues.get(value) > 1) {
-                    foundErrors.add(new Error(ErrorType.ROW_ERROR, col, row));
-                }
-            }
-        }
-
-        // check columns
-        for (int col = 0; col < this.edgeSize; col++) {
-            foundValues.clear();
-            int rowOffset = col;
-            for (int row = 0; row < this.edgeSize; row++) {
-                final int value = this.sudokuField[rowOffset] & 0xFF;
-                rowOffset += this.edgeSize;
-                if (value == 0) {
-                    continue;
-                }
-                foundValues.merge(value, 1, Integer::sum);
-            }
-            rowOffset = col;
-            for (int row = 0; row < this.edgeSize; row++) {
-                final int value = this.sudokuField[rowOffset] & 0xFF;
-                rowOffset += this.edgeSize;
-                if (value == 0) {
-                    continue;
-                }
-                if (foundValues.get(value) > 1) {
-                    foundErrors.add(new Error(ErrorType.COLUMN_ERROR, col, row));
-                }
-            }
+    // models which never search errors don't get a tracker at all
+    private void syncConflicts() {
+        if (this.conflictTracker != null) {
+            this.conflictTracker.load(this.sudokuField);
+            this.conflictsValid = true;
         }
+    }
 
-        // check sub-fields
-        for (int y = 0; y < this.subFields; y++) {
-            for (int x = 0; x < this.subFields; x++) {
-                foundValues.clear();
-                int offset = x * this.subFieldSize + y * this.subFieldSize * this.edgeSize;
-                for (int row = 0; row < this.subFieldSize; row++) {
-                    for (int col = 0; col < this.subFieldSize; col++) {
-                        final int value = this.sudokuField[offset + col] & 0xFF;
-                        if (value == 0) {
-                            continue;
-                        }
-                        foundValues.merge(value, 1, Integer::sum);
-                    }
-                    offset += this.edgeSize;
-                }
-                offset = x * this.subFieldSize + y * this.subFieldSize * this.edgeSize;
-                for (int row = 0; row < this.subFieldSize; row++) {
-                    for (int col = 0; col < this.subFieldSize; col++) {
-                        final int value = this.sudokuField[offset + col] & 0xFF;
-                        if (value == 0) {
-                            continue;
-                        }
-                        if (foundValues.get(value) > 1) {
-                            foundErrors.add(new Error(ErrorType.SUBFIELD_ERROR, x * this.subFieldSize + col,
-                                    y * this.subFieldSize + row));
-                        }
-                    }
-                    offset += this.edgeSize;
-                }
-            }
+    public List<Error> findErrors() {
+        if (this.conflictTracker == null) {
+            this.conflictTracker = new ConflictTracker(this.subFieldSize, this.subFields);
         }
-
-        // check for no variant cells
-        final List<SudokuModel.CellVariant> variants = this.findCurrentVariantsAndSortThem();
-        if (!variants.isEmpty()) {
-            for (final SudokuModel.CellVariant v : variants) {
-                if (v.variants.length == 0) {
-                    foundErrors.add(new Error(ErrorType.NO_CELL_VARIANTS, v.col, v.row));
-                }
-            }
+        if (!this.conflictsValid) {
+            this.syncConflicts();
         }
-        return foundErrors;
+        return this.conflictTracker.findErrors();
     }
 
     public boolean isCorrectlyFilled() {
@@ -706,6 +865,24 @@ public final class SudokuModel {
                 && this.isSubFieldsInCorrectState();
     }
 
+    public enum SolverEngine {
+        BACKTRACKING,
+        BIT_MASK,
+        CONSTRAINT_PROPAGATION,
+        DANCING_LINKS,
+        PARALLEL
+    }
+
+    public enum SolveStatus {
+        COMPLETED,
+        LIMIT_REACHED,
+        CANCELLED,
+        TIMED_OUT
+    }
+
+    public record SolveResult(Set<SudokuModel> solutions, SolveStatus status) {
+    }
+
     public enum ErrorType {
         ROW_ERROR,
         COLUMN_ERROR,
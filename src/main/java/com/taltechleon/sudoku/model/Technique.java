@@ -0,0 +1,10 @@
+package com.taltechleon.sudoku.model;
+
+public enum Technique {
+    NAKED_SINGLE,
+    HIDDEN_SINGLE,
+    POINTING,
+    CLAIMING,
+    NAKED_PAIR,
+    HIDDEN_PAIR
+}
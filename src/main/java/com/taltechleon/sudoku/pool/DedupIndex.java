@@ -0,0 +1,138 @@
+package com.taltechleon.sudoku.pool;
+
+import com.taltechleon.sudoku.model.Canonicalizer;
+import com.taltechleon.sudoku.model.SudokuModel;
+import com.taltechleon.sudoku.util.LongHashSet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Set of fingerprints of canonical forms of already served puzzles, so isomorphic puzzles (the same
+ * puzzle after band, row, column permutations, transposition or relabeling) are detected. The file
+ * keeps all fingerprints, new ones are appended. Methods are thread safe.
+ */
+public final class DedupIndex implements AutoCloseable {
+    // changed with every change of the canonical form, fingerprints of older indexes don't match
+    private static final int FILE_MAGIC = 0x53444959;
+
+    private final int subFieldSize;
+    private final int subFields;
+    private final int totalCells;
+    private final ThreadLocal<Canonicalizer> canonicalizers;
+    private final LongHashSet fingerprints = new LongHashSet();
+    private final DataOutputStream out;
+
+    // file can be null, the index lives only in memory in the case
+    public DedupIndex(final int subFieldSize, final int subFields, final Path file) {
+        this.subFieldSize = subFieldSize;
+        this.subFields = subFields;
+        final int edgeSize = subFieldSize * subFields;
+        this.totalCells = edgeSize * edgeSize;
+        this.canonicalizers = ThreadLocal.withInitial(() -> new Canonicalizer(this.subFieldSize, this.subFields));
+        // fail fast for unsupported field sizes
+        this.canonicalizers.get();
+        this.out = file == null ? null : this.open(file);
+    }
+
+    private DataOutputStream open(final Path file) {
+        try {
+            final boolean exists = Files.isRegularFile(file) && Files.size(file) > 0L;
+            if (exists) {
+                this.load(file);
+            }
+            final DataOutputStream result = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+            if (!exists) {
+                result.writeInt(FILE_MAGIC);
+                result.writeByte(this.subFieldSize);
+                result.writeByte(this.subFields);
+                result.flush();
+            }
+            return result;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Can't open dedup index " + file, ex);
+        }
+    }
+
+    private void load(final Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readByte() != this.subFieldSize
+                    || in.readByte() != this.subFields) {
+                throw new IllegalArgumentException("Not a dedup index for the field size: " + file);
+            }
+            while (true) {
+                final long fingerprint;
+                try {
+                    fingerprint = in.readLong();
+                } catch (EOFException ex) {
+                    // end of file or incomplete last record after crash
+                    break;
+                }
+                this.fingerprints.add(fingerprint);
+            }
+        }
+    }
+
+    private long canonicalFingerprint(final byte[] cells) {
+        if (cells.length != this.totalCells) {
+            throw new IllegalArgumentException("Unexpected data size: " + this.totalCells + " <> " + cells.length);
+        }
+        final byte[] canonical = new byte[this.totalCells];
+        if (this.canonicalizers.get().canonicalize(cells, canonical) == null) {
+            // over the canonicalizer budget, only the same puzzle is detected; another seed keeps it apart
+            return ~SudokuModel.fingerprint(cells);
+        }
+        return SudokuModel.fingerprint(canonical);
+    }
+
+    // returns false if the same or an isomorphic puzzle is already in the index
+    public boolean add(final byte[] cells) {
+        final long fingerprint = this.canonicalFingerprint(cells);
+        synchronized (this) {
+            if (!this.fingerprints.add(fingerprint)) {
+                return false;
+            }
+            if (this.out != null) {
+                try {
+                    this.out.writeLong(fingerprint);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Can't write dedup index", ex);
+                }
+            }
+            return true;
+        }
+    }
+
+    public boolean contains(final byte[] cells) {
+        final long fingerprint = this.canonicalFingerprint(cells);
+        synchronized (this) {
+            return this.fingerprints.contains(fingerprint);
+        }
+    }
+
+    public synchronized int size() {
+        return this.fingerprints.size();
+    }
+
+    public synchronized void flush() throws IOException {
+        if (this.out != null) {
+            this.out.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.out != null) {
+            this.out.close();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.taltechleon.sudoku.pool;
+
+import com.taltechleon.sudoku.model.DifficultyRater;
+
+public enum Difficulty {
+    EXTREMELY_EASY(47),
+    EASY(36),
+    MEDIUM(32),
+    DIFFICULT(28),
+    EVIL(22);
+
+    private final int clues;
+
+    Difficulty(final int clues) {
+        this.clues = clues;
+    }
+
+    public int getClues() {
+        return this.clues;
+    }
+
+    // tier of the hardest technique needed to solve the puzzle, clues are not taken into account
+    public static Difficulty of(final DifficultyRater.Rating rating) {
+        if (rating.hardestTechnique() == null || rating.needsGuessing()) {
+            return EVIL;
+        }
+        switch (rating.hardestTechnique()) {
+            case NAKED_SINGLE:
+                return EXTREMELY_EASY;
+            case HIDDEN_SINGLE:
+                return EASY;
+            case POINTING:
+            case CLAIMING:
+                return MEDIUM;
+            default:
+                return DIFFICULT;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.taltechleon.sudoku.pool;
+
+import com.taltechleon.sudoku.io.GridCodec;
+import com.taltechleon.sudoku.model.DifficultyRater;
+import com.taltechleon.sudoku.model.SolveControl;
+import com.taltechleon.sudoku.model.SudokuModel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded queues of pre-generated puzzles for every difficulty tier. Background threads refill a
+ * tier when it drops to the low watermark, so taking a puzzle is just a queue poll. Queued puzzles
+ * can be saved into a file on close and loaded back on start. With dedup index generated puzzles
+ * isomorphic to already served ones are dropped. With rating the tiers share producers: every
+ * producer generates for the tier with the most free room and puts the puzzle into the tier of its
+ * measured difficulty, so no generated puzzle is thrown away while its tier has room.
+ */
+public final class PuzzlePool implements AutoCloseable {
+    private static final int STORAGE_MAGIC = 0x53505032;
+
+    private final int subFieldSize;
+    private final int subFields;
+    private final int totalCells;
+    private final GridCodec codec;
+    private final int lowWatermark;
+    private final int generatorThreads;
+    private final Path storage;
+    private final DedupIndex dedupIndex;
+    private final ThreadLocal<DifficultyRater> raters;
+    private final long startNanos;
+
+    private final Map<Difficulty, Tier> tiers = new EnumMap<>(Difficulty.class);
+    private final ExecutorService generators;
+    private final ThreadLocal<SudokuModel> models;
+    private final SolveControl control = SolveControl.unlimited();
+    private final AtomicInteger ratedProducers = new AtomicInteger();
+    private volatile boolean closed;
+
+    public PuzzlePool(final int subFieldSize, final int subFields, final int capacityPerTier,
+                      final int generatorThreads) {
+        this(subFieldSize, subFields, capacityPerTier, capacityPerTier / 4, generatorThreads, null);
+    }
+
+    // storage can be null, puzzles are not persisted in the case
+    public PuzzlePool(final int subFieldSize, final int subFields, final int capacityPerTier,
+                      final int lowWatermark, final int generatorThreads, final Path storage) {
+        this(subFieldSize, subFields, capacityPerTier, lowWatermark, generatorThreads, storage, null);
+    }
+
+    // dedup index can be null, it is not closed by the pool
+    public PuzzlePool(final int subFieldSize, final int subFields, final int capacityPerTier,
+                      final int lowWatermark, final int generatorThreads, final Path storage,
+                      final DedupIndex dedupIndex) {
+        this(subFieldSize, subFields, capacityPerTier, lowWatermark, generatorThreads, storage, dedupIndex, false);
+    }
+
+    public PuzzlePool(final int subFieldSize, final int subFields, final int capacityPerTier,
+                      final int lowWatermark, final int generatorThreads, final Path storage,
+                      final DedupIndex dedupIndex, final boolean rateDifficulty) {
+        if (capacityPerTier <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacityPerTier);
+        }
+        if (lowWatermark < 0 || lowWatermark >= capacityPerTier) {
+            throw new IllegalArgumentException("Low watermark must be in 0.." + (capacityPerTier - 1));
+        }
+        this.subFieldSize = subFieldSize;
+        this.subFields = subFields;
+        final int edgeSize = subFieldSize * subFields;
+        this.totalCells = edgeSize * edgeSize;
+        this.codec = new GridCodec(subFieldSize, subFields);
+        this.lowWatermark = lowWatermark;
+        this.generatorThreads = generatorThreads;
+        this.storage = storage;
+        this.dedupIndex = dedupIndex;
+        this.models = ThreadLocal.withInitial(() -> new SudokuModel(this.subFieldSize, this.subFields));
+        this.raters = rateDifficulty
+                ? ThreadLocal.withInitial(() -> new DifficultyRater(this.subFieldSize, this.subFields))
+                : null;
+        for (final Difficulty difficulty : Difficulty.values()) {
+            this.tiers.put(difficulty, new Tier(difficulty, capacityPerTier));
+        }
+        this.generators = Executors.newFixedThreadPool(generatorThreads, runnable -> {
+            final Thread thread = new Thread(runnable, "puzzle-pool-generator");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        if (storage != null && Files.isRegularFile(storage)) {
+            this.load(storage);
+        }
+        this.startNanos = System.nanoTime();
+        this.tiers.values().forEach(Tier::scheduleRefill);
+    }
+
+    // returns null if there is no ready puzzle for the tier
+    public SudokuModel poll(final Difficulty difficulty) {
+        final Tier tier = this.tiers.get(difficulty);
+        final byte[] cells = tier.queue.poll();
+        if (cells == null) {
+            tier.misses.increment();
+        } else {
+            tier.hits.increment();
+        }
+        if (tier.queue.size() <= this.lowWatermark) {
+            tier.scheduleRefill();
+        }
+        return cells == null ? null : this.toModel(cells);
+    }
+
+    // generates puzzle on the caller thread if the tier is empty
+    public SudokuModel take(final Difficulty difficulty) {
+        return this.take(difficulty, SolveControl.unlimited());
+    }
+
+    // generates puzzle on the caller thread if the tier is empty, with rating it repeats generation
+    // until the puzzle is rated for the tier and offers other puzzles to their tiers; null if stopped
+    public SudokuModel take(final Difficulty difficulty, final SolveControl control) {
+        final SudokuModel result = this.poll(difficulty);
+        if (result != null) {
+            return result;
+        }
+        final SudokuModel generated = new SudokuModel(this.subFieldSize, this.subFields);
+        while (true) {
+            final int clues = this.raters == null ? difficulty.getClues() : ratedClues(difficulty);
+            if (generated.generate(clues, control) != SudokuModel.SolveStatus.COMPLETED) {
+                return null;
+            }
+            final byte[] cells = generated.cellsAsArray();
+            final Difficulty rated = this.raters == null ? difficulty : Difficulty.of(this.raters.get().rate(cells));
+            if (rated != difficulty) {
+                this.tiers.get(rated).offer(cells);
+            } else if (this.dedupIndex == null || this.dedupIndex.add(cells)) {
+                // served puzzles must be in the index as well as queued ones
+                return generated;
+            }
+        }
+    }
+
+    public Metrics getMetrics(final Difficulty difficulty) {
+        final Tier tier = this.tiers.get(difficulty);
+        final long generated = tier.generated.sum();
+        final double seconds = (System.nanoTime() - this.startNanos) / 1.0e9d;
+        return new Metrics(tier.hits.sum(), tier.misses.sum(), generated,
+                seconds > 0.0d ? generated / seconds : 0.0d, tier.queue.size());
+    }
+
+    // clue counts giving the most puzzles of the tier per generation time with rating, measured on
+    // 2000 puzzles per count: EASY 55% at 30 clues, MEDIUM 9% and EVIL 20% at 27, DIFFICULT 3% at 26
+    private static int ratedClues(final Difficulty difficulty) {
+        switch (difficulty) {
+            case EASY:
+                return 30;
+            case MEDIUM:
+            case EVIL:
+                return 27;
+            case DIFFICULT:
+                return 26;
+            default:
+                return difficulty.getClues();
+        }
+    }
+
+    private void scheduleRatedRefill() {
+        int running;
+        while (!this.closed && (running = this.ratedProducers.get()) < this.generatorThreads) {
+            if (this.ratedProducers.compareAndSet(running, running + 1)) {
+                this.generators.execute(this::refillRated);
+            }
+        }
+    }
+
+    // returns null if all tiers are full
+    private Tier findEmptiestTier() {
+        Tier result = null;
+        for (final Tier tier : this.tiers.values()) {
+            final int room = tier.queue.remainingCapacity();
+            if (room > 0 && (result == null || room > result.queue.remainingCapacity())) {
+                result = tier;
+            }
+        }
+        return result;
+    }
+
+    private void refillRated() {
+        try {
+            final SudokuModel model = this.models.get();
+            final DifficultyRater rater = this.raters.get();
+            Tier target;
+            while (!this.closed && (target = this.findEmptiestTier()) != null) {
+                if (model.generate(ratedClues(target.difficulty), this.control) != SudokuModel.SolveStatus.COMPLETED) {
+                    return;
+                }
+                final byte[] cells = model.cellsAsArray();
+                this.tiers.get(Difficulty.of(rater.rate(cells))).offer(cells);
+            }
+        } finally {
+            this.ratedProducers.decrementAndGet();
+        }
+        // a tier could drop to the watermark while the producer was leaving
+        if (this.findEmptiestTier() != null) {
+            this.scheduleRatedRefill();
+        }
+    }
+
+    private SudokuModel toModel(final byte[] cells) {
+        final SudokuModel model = new SudokuModel(this.subFieldSize, this.subFields);
+        model.loadFromArray(cells);
+        return model;
+    }
+
+    private void load(final Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != STORAGE_MAGIC || in.readByte() != this.subFieldSize
+                    || in.readByte() != this.subFields) {
+                // foreign or incompatible file, just start with empty pool
+                return;
+            }
+            final int tierCount = in.readUnsignedByte();
+            for (int t = 0; t < tierCount; t++) {
+                final Difficulty difficulty = Difficulty.values()[in.readUnsignedByte()];
+                final int count = in.readInt();
+                final Tier tier = this.tiers.get(difficulty);
+                final ByteBuffer record = ByteBuffer.allocate(this.codec.getPackedSize());
+                for (int i = 0; i < count; i++) {
+                    in.readFully(record.array());
+                    final byte[] cells = new byte[this.totalCells];
+                    this.codec.readPacked(record.clear(), cells);
+                    // saved puzzles are usually in the index already, a fresh index learns them here
+                    if (this.dedupIndex != null) {
+                        this.dedupIndex.add(cells);
+                    }
+                    tier.queue.offer(cells);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Can't load puzzle pool from " + file, ex);
+        }
+    }
+
+    private void save(final Path file) throws IOException {
+        final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(STORAGE_MAGIC);
+            out.writeByte(this.subFieldSize);
+            out.writeByte(this.subFields);
+            out.writeByte(this.tiers.size());
+            final ByteBuffer record = ByteBuffer.allocate(this.codec.getPackedSize());
+            for (final Tier tier : this.tiers.values()) {
+                final byte[][] puzzles = tier.queue.toArray(new byte[0][]);
+                out.writeByte(tier.difficulty.ordinal());
+                out.writeInt(puzzles.length);
+                for (final byte[] cells : puzzles) {
+                    this.codec.writePacked(cells, record.clear());
+                    out.write(record.array());
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.control.cancel();
+        this.generators.shutdownNow();
+        try {
+            this.generators.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (this.dedupIndex != null) {
+            this.dedupIndex.flush();
+        }
+        if (this.storage != null) {
+            this.save(this.storage);
+        }
+    }
+
+    public record Metrics(long hits, long misses, long generated, double generatedPerSecond, int available) {
+    }
+
+    private final class Tier {
+        private final Difficulty difficulty;
+        private final BlockingQueue<byte[]> queue;
+        private final AtomicBoolean refillScheduled = new AtomicBoolean();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder generated = new LongAdder();
+
+        private Tier(final Difficulty difficulty, final int capacity) {
+            this.difficulty = difficulty;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void scheduleRefill() {
+            if (raters != null) {
+                scheduleRatedRefill();
+            } else if (!closed && this.refillScheduled.compareAndSet(false, true)) {
+                generators.execute(this::refill);
+            }
+        }
+
+        // full tier just drops the puzzle, dedup index sees only puzzles which can be queued
+        private void offer(final byte[] cells) {
+            if (this.queue.remainingCapacity() > 0 && (dedupIndex == null || dedupIndex.add(cells))
+                    && this.queue.offer(cells)) {
+                this.generated.increment();
+            }
+        }
+
+        private void refill() {
+            try {
+                final SudokuModel model = models.get();
+                while (!closed && this.queue.remainingCapacity() > 0) {
+                    if (model.generate(this.difficulty.getClues(), control) != SudokuModel.SolveStatus.COMPLETED) {
+                        return;
+                    }
+                    this.offer(model.cellsAsArray());
+                }
+            } finally {
+                this.refillScheduled.set(false);
+            }
+        }
+    }
+}
@@ -189,6 +189,10 @@ public class SudokuUiCell extends JComponent {
                 scaledFontMetrics.getHeight() - scaledFontMetrics.getDescent());
     }
 
+    int getFieldIndex() {
+        return this.fieldIndex;
+    }
+
     public int getCellValue() {
         return this.cellValue;
     }
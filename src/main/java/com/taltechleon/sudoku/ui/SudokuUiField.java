@@ -1,5 +1,7 @@
 package com.taltechleon.sudoku.ui;
 
+import com.taltechleon.sudoku.model.ConflictTracker;
+import com.taltechleon.sudoku.model.SolveCache;
 import com.taltechleon.sudoku.model.SudokuModel;
 
 import javax.swing.*;
@@ -8,18 +10,35 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class SudokuUiField extends JPanel {
     private static final Color COLOR_CELL_ERROR_MARK = new Color(0x60_FF0000, true);
     private static final Color COLOR_OTHER_ERROR_MARK = new Color(0x40_ff7a03, true);
     private static final Color COLOR_SOLVABILITY_ERROR = new Color(0x70_FF0000, true);
     private static final Color COLOR_SOLVABILITY_OK = new Color(0x70_00FF00, true);
+    private static final Color COLOR_SOLVABILITY_PENDING = new Color(0x70_808080, true);
+    private static final int ANALYSIS_DELAY_MS = 150;
+    // checks are repeated on every edit, undo returns to already checked positions
+    private static final SolveCache SOLVE_CACHE = new SolveCache(3, 3, 4096, true);
+    // stale analyses are stopped by generation check so one thread is enough
+    private static final ExecutorService ANALYZER = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "sudoku-field-analyzer");
+        thread.setDaemon(true);
+        return thread;
+    });
     private final SudokuUiCell[][] cells;
     private final List<SudokuModel.Error> errors = new ArrayList<>();
+    // follows every cell edit so errors are not searched by rescan of the whole field
+    private final ConflictTracker conflictTracker = new ConflictTracker(3, 3);
+    // edits are collected while the timer is running, analysis starts when they stop
+    private final Timer analysisTimer;
+    private final AtomicInteger analysisGeneration = new AtomicInteger();
+    private boolean solvabilityPending;
     private boolean showErrors;
     private boolean showVariants;
     private boolean showSolvability;
@@ -37,6 +56,8 @@ public class SudokuUiField extends JPanel {
             this.add(cell);
             cells[col][row] = cell;
         }
+        this.analysisTimer = new Timer(ANALYSIS_DELAY_MS, e -> this.onAnalysisTimer());
+        this.analysisTimer.setRepeats(false);
         this.doLayout();
     }
 
@@ -60,24 +81,75 @@ public class SudokuUiField extends JPanel {
         this.repaint();
     }
 
+    // field must not contain errors, consumer is called on EDT and skipped if the field is changed before
+    public void checkSolvability(final Consumer<SolveCache.Solvability> consumer) {
+        this.checkSolvability(consumer, () -> {
+        });
+    }
+
+    // field must not contain errors, consumer is called on EDT with result for the checked field,
+    // if the field is changed before the result then onFieldChanged is called on EDT instead
+    public void checkSolvability(final Consumer<SolveCache.Solvability> consumer, final Runnable onFieldChanged) {
+        final int generation = this.analysisGeneration.get();
+        final byte[] field = this.makeSolver().cellsAsArray();
+        ANALYZER.execute(() -> {
+            final SolveCache.Result result =
+                    SOLVE_CACHE.check(field, () -> this.analysisGeneration.get() != generation);
+            SwingUtilities.invokeLater(() -> {
+                if (result != null && this.analysisGeneration.get() == generation) {
+                    consumer.accept(result.solvability());
+                } else {
+                    onFieldChanged.run();
+                }
+            });
+        });
+    }
+
+    // stale checks are not removed from the queue, their stop condition ends them right on start
+    private void cancelAnalysis() {
+        this.analysisGeneration.incrementAndGet();
+    }
+
+    private void onAnalysisTimer() {
+        if (this.showVariants) {
+            this.updateShowVariants();
+        }
+        if (this.solvabilityPending) {
+            this.solvabilityPending = false;
+            this.checkSolvability(this::onSolvabilityChecked);
+        }
+        this.repaint();
+    }
+
+    private void onSolvabilityChecked(final SolveCache.Solvability solvability) {
+        if (!this.showSolvability) {
+            return;
+        }
+        if (solvability == SolveCache.Solvability.NO_SOLUTIONS) {
+            this.textSolvability = "NO SOLUTIONS";
+            this.colorSolvability = COLOR_SOLVABILITY_ERROR;
+        } else if (solvability == SolveCache.Solvability.UNIQUE) {
+            this.textSolvability = "UNIQUE SOLUTION";
+            this.colorSolvability = COLOR_SOLVABILITY_OK;
+        } else {
+            this.textSolvability = "MULTIPLE SOLUTIONS";
+            this.colorSolvability = COLOR_SOLVABILITY_ERROR;
+        }
+        this.repaint();
+    }
+
     public void updateSolvabilityState() {
+        this.solvabilityPending = false;
         if (this.showSolvability) {
-            final SudokuModel model = this.makeSolver();
-            if (model.isCorrectlyFilled()) {
+            if (this.conflictTracker.isSolved()) {
                 this.textSolvability = "SOLVED";
                 this.colorSolvability = COLOR_SOLVABILITY_OK;
-            } else if (model.findErrors().isEmpty()) {
-                final Set<SudokuModel> foundSolutions = model.solve(2);
-                if (foundSolutions.isEmpty()) {
-                    this.textSolvability = "NO SOLUTIONS";
-                    this.colorSolvability = COLOR_SOLVABILITY_ERROR;
-                } else if (foundSolutions.size() == 1) {
-                    this.textSolvability = "UNIQUE SOLUTION";
-                    this.colorSolvability = COLOR_SOLVABILITY_OK;
-                } else {
-                    this.textSolvability = "MULTIPLE SOLUTIONS";
-                    this.colorSolvability = COLOR_SOLVABILITY_ERROR;
-                }
+            } else if (!this.conflictTracker.hasErrors()) {
+                // search can be long for hard fields, so it is made in background
+                this.textSolvability = "CHECKING...";
+                this.colorSolvability = COLOR_SOLVABILITY_PENDING;
+                this.solvabilityPending = true;
+                this.analysisTimer.restart();
             } else {
                 this.textSolvability = "HAS ERRORS";
                 this.colorSolvability = COLOR_SOLVABILITY_ERROR;
@@ -88,12 +160,17 @@ public class SudokuUiField extends JPanel {
 
     private void updateShowVariants() {
         if (this.showVariants) {
-            final List<SudokuModel.CellVariant> list =
-                    this.makeSolver().findCurrentVariantsAndSortThem();
-            for (final SudokuModel.CellVariant v : list) {
-                this.cells[v.col()][v.row()].setCellVariants(
-                        Arrays.stream(v.variants()).boxed().collect(
-                                Collectors.toList()), true);
+            for (int row = 0; row < 9; row++) {
+                for (int col = 0; col < 9; col++) {
+                    if (this.conflictTracker.get(col, row) != 0) {
+                        continue;
+                    }
+                    final List<Integer> variants = new ArrayList<>();
+                    for (int bits = this.conflictTracker.getCandidates(col, row); bits != 0; bits &= bits - 1) {
+                        variants.add(Integer.numberOfTrailingZeros(bits) + 1);
+                    }
+                    this.cells[col][row].setCellVariants(variants, true);
+                }
             }
         } else {
             for (int y = 0; y < 9; y++) {
@@ -111,12 +188,23 @@ public class SudokuUiField extends JPanel {
 
     public void setShowErrors(final boolean value) {
         this.showErrors = value;
+        this.updateErrors();
+        this.repaint();
+    }
+
+    public boolean hasErrors() {
+        return this.conflictTracker.hasErrors();
+    }
+
+    private void updateErrors() {
+        final boolean hadErrors = !this.errors.isEmpty();
         this.errors.clear();
-        if (this.showErrors) {
-            this.errors.addAll(this.makeSolver().findErrors());
+        if (this.showErrors && this.conflictTracker.hasErrors()) {
+            this.errors.addAll(this.conflictTracker.findErrors());
+        }
+        if (hadErrors || !this.errors.isEmpty()) {
+            this.updateErrorTooltips();
         }
-        this.updateErrorTooltips();
-        this.repaint();
     }
 
     public BufferedImage renderAsImage(final int width, final int height) {
@@ -219,13 +307,13 @@ public class SudokuUiField extends JPanel {
     }
 
     void onValueChangedInCell(final SudokuUiCell cell) {
-        this.updateShowVariants();
-        this.errors.clear();
-        if (this.showErrors) {
-            this.errors.addAll(this.makeSolver().findErrors());
-        }
-        this.updateErrorTooltips();
+        this.conflictTracker.set(cell.getFieldIndex() % 9, cell.getFieldIndex() / 9, cell.getCellValue());
+        this.cancelAnalysis();
+        this.updateErrors();
         this.setShowSolvability(false);
+        if (this.showVariants) {
+            this.analysisTimer.restart();
+        }
         this.repaint();
     }
 
@@ -249,11 +337,7 @@ public class SudokuUiField extends JPanel {
             }
         }
 
-        if (this.showErrors) {
-            this.errors.clear();
-            this.errors.addAll(solver.findErrors());
-        }
-        this.updateErrorTooltips();
+        this.updateErrors();
         this.updateSolvabilityState();
 
         this.repaint();
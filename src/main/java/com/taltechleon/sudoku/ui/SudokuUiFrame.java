@@ -1,5 +1,9 @@
 package com.taltechleon.sudoku.ui;
 
+import com.taltechleon.sudoku.model.SolveCache;
+import com.taltechleon.sudoku.model.SolveControl;
+import com.taltechleon.sudoku.pool.Difficulty;
+import com.taltechleon.sudoku.pool.PuzzlePool;
 import com.taltechleon.sudoku.model.SudokuModel;
 
 import javax.imageio.ImageIO;
@@ -12,14 +16,21 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 public class SudokuUiFrame extends JFrame {
 
     private static final int MINIMAL_ALLOWED_NUMBER_OF_CLUES = 17;
+    private static final int GENERATION_THREADS = Runtime.getRuntime().availableProcessors();
     private final FileFilter SUDOKU_FILE_FILTER = new FileFilter() {
         @Override
         public boolean accept(File f) {
@@ -43,6 +54,15 @@ public class SudokuUiFrame extends JFrame {
         }
     };
     private final SudokuUiField sudokuField;
+    // tiers are filled by measured difficulty, inline generation also repeats until the rating matches
+    private final PuzzlePool puzzlePool = new PuzzlePool(3, 3, 8, 2, 1, null, null, true);
+    // rated takes for empty pool tiers are raced on the threads, lives as long as the frame
+    private final ExecutorService generationExecutor = Executors.newFixedThreadPool(GENERATION_THREADS, runnable -> {
+        final Thread thread = new Thread(runnable, "sudoku-frame-generator");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private SolveControl generationControl;
 
     public SudokuUiFrame() {
         super("Sudoku dashboard");
@@ -192,33 +212,37 @@ public class SudokuUiFrame extends JFrame {
 
             if (JOptionPane.showConfirmDialog(this, radioButtonPanel, "Select level",
                     JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) == JOptionPane.OK_OPTION) {
-                final int clues;
+                final Difficulty difficulty;
                 if (buttonExtremelyEasy.isSelected()) {
-                    clues = 47;
+                    difficulty = Difficulty.EXTREMELY_EASY;
                 } else if (buttonEasy.isSelected()) {
-                    clues = 36;
+                    difficulty = Difficulty.EASY;
                 } else if (buttonMedium.isSelected()) {
-                    clues = 32;
+                    difficulty = Difficulty.MEDIUM;
                 } else if (buttonDifficult.isSelected()) {
-                    clues = 28;
+                    difficulty = Difficulty.DIFFICULT;
                 } else if (buttonEvil.isSelected()) {
-                    clues = 22;
+                    difficulty = Difficulty.EVIL;
                 } else {
                     throw new Error("Unexpected state");
                 }
-                final SudokuModel solver = new SudokuModel(3, 3);
-                solver.generate(clues);
-                this.sudokuField.updateForSolver(solver);
+                final SudokuModel solver = this.puzzlePool.poll(difficulty);
+                if (solver == null) {
+                    this.startGeneration(difficulty);
+                } else {
+                    this.cancelGeneration();
+                    this.sudokuField.updateForSolver(solver);
+                }
             }
         }), gbl);
 
         panel.add(makeButton("Try solve", e -> {
-            final SudokuModel solver = this.sudokuField.makeSolver();
-            if (!solver.findErrors().isEmpty()) {
+            if (this.sudokuField.hasErrors()) {
                 JOptionPane.showMessageDialog(this, "Puzzle is not correct one and contains errors!",
                         "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
+            final SudokuModel solver = this.sudokuField.makeSolver();
             var variantsForNonEmptyCells = solver.findCurrentVariantsAndSortThem();
             if (81 - variantsForNonEmptyCells.size() < MINIMAL_ALLOWED_NUMBER_OF_CLUES) {
                 JOptionPane.showMessageDialog(this,
@@ -227,9 +251,18 @@ public class SudokuUiFrame extends JFrame {
                 return;
             }
 
-            final SudokuUiSolvePanel solvePanel = new SudokuUiSolvePanel(this, solver);
-            solvePanel.start();
-            solvePanel.setVisible(true);
+            this.sudokuField.checkSolvability(solvability -> {
+                if (solvability == SolveCache.Solvability.NO_SOLUTIONS) {
+                    JOptionPane.showMessageDialog(this, "Puzzle has no solutions!", "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                final SudokuUiSolvePanel solvePanel = new SudokuUiSolvePanel(this, solver);
+                solvePanel.start();
+                solvePanel.setVisible(true);
+            }, () -> JOptionPane.showMessageDialog(this,
+                    "Puzzle was changed during check, press 'Try solve' again!", "Warning",
+                    JOptionPane.WARNING_MESSAGE));
         }), gbl);
 
 
@@ -272,6 +305,80 @@ public class SudokuUiFrame extends JFrame {
         return panel;
     }
 
+    private void cancelGeneration() {
+        if (this.generationControl != null) {
+            this.generationControl.cancel();
+            this.generationControl = null;
+            this.setCursor(Cursor.getDefaultCursor());
+        }
+    }
+
+    // the field is updated on EDT when a puzzle is ready, a newer request cancels the previous one
+    private void startGeneration(final Difficulty difficulty) {
+        this.cancelGeneration();
+        final SolveControl control = SolveControl.unlimited();
+        this.generationControl = control;
+        this.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<SudokuModel, Void>() {
+            @Override
+            protected SudokuModel doInBackground() throws Exception {
+                // the first rated puzzle wins, losers are interrupted and cancel the spent control
+                final List<Callable<SudokuModel>> attempts = new ArrayList<>(GENERATION_THREADS);
+                for (int i = 0; i < GENERATION_THREADS; i++) {
+                    attempts.add(() -> {
+                        final SudokuModel puzzle = puzzlePool.take(difficulty, control);
+                        if (puzzle == null) {
+                            throw new CancellationException("Generation attempt stopped");
+                        }
+                        return puzzle;
+                    });
+                }
+                try {
+                    return generationExecutor.invokeAny(attempts);
+                } catch (ExecutionException ex) {
+                    if (control.shouldStop()) {
+                        return null;
+                    }
+                    throw ex;
+                }
+            }
+
+            @Override
+            protected void done() {
+                if (generationControl != control) {
+                    return;
+                }
+                generationControl = null;
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    final SudokuModel generated = this.get();
+                    if (generated != null) {
+                        sudokuField.updateForSolver(generated);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    ex.getCause().printStackTrace();
+                    JOptionPane.showMessageDialog(SudokuUiFrame.this, "Can't generate puzzle!", "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    @Override
+    public void dispose() {
+        this.cancelGeneration();
+        this.generationExecutor.shutdownNow();
+        // stops pool producers, they would keep generating for the closed window otherwise
+        try {
+            this.puzzlePool.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        super.dispose();
+    }
+
     private void updateFieldForAllowedVariants() {
         final List<SudokuModel.CellVariant> list =
                 this.sudokuField.makeSolver().findCurrentVariantsAndSortThem();
@@ -1,5 +1,7 @@
 package com.taltechleon.sudoku.ui;
 
+import com.taltechleon.sudoku.model.SolveControl;
+import com.taltechleon.sudoku.model.SolverStatistics;
 import com.taltechleon.sudoku.model.SudokuModel;
 
 import javax.swing.*;
@@ -23,7 +25,10 @@ public class SudokuUiSolvePanel extends JDialog {
     private final JPanel panelInfo;
     private final JLabel labelFoundSolutions;
     private final JLabel labelTime;
+    private final JLabel labelStatistics;
     private final Timer timer;
+    private final SolveControl solveControl = SolveControl.unlimited();
+    private final SolverStatistics statistics = new SolverStatistics();
     private volatile int solutionCounter;
     private volatile long timeStart;
     private volatile long timeEnd;
@@ -36,15 +41,17 @@ public class SudokuUiSolvePanel extends JDialog {
         this.addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
-                worker.cancel(true);
+                cancel();
                 SudokuUiSolvePanel.this.dispose();
             }
         });
         this.baseSolver = solver;
+        this.baseSolver.setStatistics(this.statistics);
 
         this.panelInfo = new JPanel(new BorderLayout(8, 8));
         this.labelFoundSolutions = new JLabel(" Found solutions: --");
         this.labelTime = new JLabel("...  ");
+        this.labelStatistics = new JLabel(" ");
 
         this.timer = new Timer(1000, e -> {
             this.updateInfo();
@@ -52,6 +59,7 @@ public class SudokuUiSolvePanel extends JDialog {
 
         this.panelInfo.add(this.labelFoundSolutions, BorderLayout.WEST);
         this.panelInfo.add(this.labelTime, BorderLayout.EAST);
+        this.panelInfo.add(this.labelStatistics, BorderLayout.SOUTH);
 
         this.panelResults = new JPanel(new GridLayout(1, 0, 16, 16));
         this.progressBar = new JProgressBar(JProgressBar.HORIZONTAL);
@@ -60,7 +68,7 @@ public class SudokuUiSolvePanel extends JDialog {
         this.buttonStopOrClose = new JButton("Cancel");
         buttonStopOrClose.addActionListener(e -> {
             if (this.worker != null && !this.worker.isDone()) {
-                this.worker.cancel(true);
+                this.cancel();
             }
             this.setVisible(false);
         });
@@ -98,6 +106,12 @@ public class SudokuUiSolvePanel extends JDialog {
 
         this.labelTime.setText(spentTime.toHoursPart() + "h " + spentTime.toMinutesPart() + "m " +
                 spentTime.toSecondsPart() + "." + spentTime.toMillisPart() + "s  ");
+
+        // parallel search adds counters when its sub-tasks end
+        final SolverStatistics.Snapshot snapshot = this.statistics.snapshot();
+        this.labelStatistics.setText(" Nodes: " + snapshot.nodes() + ", guesses: " + snapshot.guesses()
+                + ", backtracks: " + snapshot.backtracks() + ", eliminations: " + snapshot.eliminations()
+                + ", max depth: " + snapshot.maxDepth());
     }
 
     public void start() {
@@ -108,7 +122,7 @@ public class SudokuUiSolvePanel extends JDialog {
             @Override
             protected JPanel doInBackground() {
                 try {
-                    baseSolver.solve(123, this::publish);
+                    baseSolver.solve(123, SudokuModel.SolverEngine.PARALLEL, solveControl, this::publish);
                 } catch (Exception ex) {
                     detectedError = ex;
                     ex.printStackTrace();
@@ -150,6 +164,7 @@ public class SudokuUiSolvePanel extends JDialog {
     }
 
     public void cancel() {
+        this.solveControl.cancel();
         if (this.worker != null) {
             this.worker.cancel(true);
         }
@@ -0,0 +1,212 @@
+package com.taltechleon.sudoku.util;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Open addressing set of primitive long values with linear probing, no boxing and one table for all
+ * entries. Zero is kept in a separate flag because it marks free slots. The table can be kept in java
+ * heap or in direct memory for big sets. Not thread safe.
+ */
+public final class LongHashSet {
+    private static final long FREE = 0L;
+    private static final int MIN_CAPACITY = 16;
+
+    private final Storage storage;
+    private Slots slots;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashSet(final int expectedSize) {
+        this(expectedSize, Storage.HEAP);
+    }
+
+    public LongHashSet(final int expectedSize, final Storage storage) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative: " + expectedSize);
+        }
+        this.storage = storage;
+        this.allocate(this.capacityFor(expectedSize));
+    }
+
+    // keeps load factor not greater than 0.5
+    private int capacityFor(final int expectedSize) {
+        final long required = Math.max(MIN_CAPACITY, (long) expectedSize * 2L);
+        if (required > this.storage.maxCapacity) {
+            throw new IllegalArgumentException("Too big expected size: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) required - 1) << 1;
+    }
+
+    private void allocate(final int capacity) {
+        this.slots = this.storage.allocate(capacity);
+        this.mask = capacity - 1;
+    }
+
+    private int indexOf(final long value) {
+        final long mixed = value * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & this.mask;
+    }
+
+    public boolean add(final long value) {
+        if (value == FREE) {
+            if (this.containsZero) {
+                return false;
+            }
+            this.containsZero = true;
+            this.size++;
+            return true;
+        }
+        int index = this.indexOf(value);
+        long slot;
+        while ((slot = this.slots.get(index)) != FREE) {
+            if (slot == value) {
+                return false;
+            }
+            index = (index + 1) & this.mask;
+        }
+        this.slots.put(index, value);
+        this.size++;
+        if (this.size * 2 > this.slots.capacity()) {
+            this.grow();
+        }
+        return true;
+    }
+
+    public boolean contains(final long value) {
+        if (value == FREE) {
+            return this.containsZero;
+        }
+        int index = this.indexOf(value);
+        long slot;
+        while ((slot = this.slots.get(index)) != FREE) {
+            if (slot == value) {
+                return true;
+            }
+            index = (index + 1) & this.mask;
+        }
+        return false;
+    }
+
+    private void grow() {
+        final Slots old = this.slots;
+        if (old.capacity() >= this.storage.maxCapacity) {
+            throw new IllegalStateException("Too many values for " + this.storage + " storage: " + this.size);
+        }
+        this.allocate(old.capacity() * 2);
+        for (int i = 0; i < old.capacity(); i++) {
+            final long value = old.get(i);
+            if (value != FREE) {
+                int index = this.indexOf(value);
+                while (this.slots.get(index) != FREE) {
+                    index = (index + 1) & this.mask;
+                }
+                this.slots.put(index, value);
+            }
+        }
+    }
+
+    public void clear() {
+        this.slots.clear();
+        this.size = 0;
+        this.containsZero = false;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public enum Storage {
+        HEAP(1 << 30),
+        // direct buffer is addressed by int bytes
+        DIRECT(1 << 27);
+
+        private final int maxCapacity;
+
+        Storage(final int maxCapacity) {
+            this.maxCapacity = maxCapacity;
+        }
+
+        private Slots allocate(final int capacity) {
+            return this == HEAP ? new HeapSlots(capacity) : new DirectSlots(capacity);
+        }
+    }
+
+    private interface Slots {
+        long get(int index);
+
+        void put(int index, long value);
+
+        int capacity();
+
+        void clear();
+    }
+
+    private static final class HeapSlots implements Slots {
+        private final long[] values;
+
+        private HeapSlots(final int capacity) {
+            this.values = new long[capacity];
+        }
+
+        @Override
+        public long get(final int index) {
+            return this.values[index];
+        }
+
+        @Override
+        public void put(final int index, final long value) {
+            this.values[index] = value;
+        }
+
+        @Override
+        public int capacity() {
+            return this.values.length;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(this.values, FREE);
+        }
+    }
+
+    private static final class DirectSlots implements Slots {
+        private final LongBuffer values;
+
+        private DirectSlots(final int capacity) {
+            this.values = ByteBuffer.allocateDirect(capacity * Long.BYTES).asLongBuffer();
+        }
+
+        @Override
+        public long get(final int index) {
+            return this.values.get(index);
+        }
+
+        @Override
+        public void put(final int index, final long value) {
+            this.values.put(index, value);
+        }
+
+        @Override
+        public int capacity() {
+            return this.values.capacity();
+        }
+
+        @Override
+        public void clear() {
+            for (int i = 0; i < this.values.capacity(); i++) {
+                this.values.put(i, FREE);
+            }
+        }
+    }
+}
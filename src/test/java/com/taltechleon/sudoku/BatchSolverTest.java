@@ -0,0 +1,66 @@
+package com.taltechleon.sudoku;
+
+import com.taltechleon.sudoku.model.BatchSolver;
+import com.taltechleon.sudoku.model.SudokuModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchSolverTest {
+
+    private static List<byte[]> makePuzzles(final int number) {
+        final Random random = new Random(777L);
+        final SudokuModel model = new SudokuModel(3, 3).fillBase();
+        final List<byte[]> result = new ArrayList<>();
+        for (int i = 0; i < number; i++) {
+            final byte[] puzzle = model.cellsAsArray();
+            for (int j = 0; j < 40; j++) {
+                puzzle[random.nextInt(puzzle.length)] = 0;
+            }
+            result.add(puzzle);
+        }
+        return result;
+    }
+
+    @Test
+    void testOrderedResults() {
+        final List<byte[]> puzzles = makePuzzles(1000);
+        final List<BatchSolver.Result> results = new ArrayList<>();
+        try (final BatchSolver batchSolver = new BatchSolver(3, 3, 2, 4)) {
+            batchSolver.solveOrdered(puzzles.iterator(), results::add);
+        }
+        assertEquals(puzzles.size(), results.size());
+        final SudokuModel model = new SudokuModel(3, 3);
+        for (int i = 0; i < results.size(); i++) {
+            final BatchSolver.Result result = results.get(i);
+            assertEquals(i, result.index());
+            assertArrayEquals(puzzles.get(i), result.puzzle());
+            model.loadFromArray(puzzles.get(i));
+            assertEquals(model.solve(2).size(), result.solutions());
+            model.loadFromArray(result.solution());
+            assertTrue(model.isCorrectlyFilled());
+        }
+    }
+
+    @Test
+    void testUnorderedResults() {
+        final List<byte[]> puzzles = makePuzzles(1000);
+        final boolean[] delivered = new boolean[puzzles.size()];
+        try (final BatchSolver batchSolver = new BatchSolver(3, 3, 1, 4)) {
+            batchSolver.solveUnordered(puzzles.iterator(), result -> {
+                assertArrayEquals(puzzles.get((int) result.index()), result.puzzle());
+                assertEquals(1, result.solutions());
+                delivered[(int) result.index()] = true;
+            });
+        }
+        for (final boolean d : delivered) {
+            assertTrue(d);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.taltechleon.sudoku;
+
+import com.taltechleon.sudoku.model.Canonicalizer;
+import com.taltechleon.sudoku.model.SudokuModel;
+import com.taltechleon.sudoku.pool.DedupIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CanonicalizerTest {
+
+    private static void shuffle(final int[] array, final int from, final int to, final SplittableRandom rnd) {
+        for (int i = to - 1; i > from; i--) {
+            final int j = from + rnd.nextInt(i - from + 1);
+            final int temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+    }
+
+    // random transformation from the symmetry group plus relabeling
+    private static byte[] randomIsomorph(final byte[] cells, final SplittableRandom rnd) {
+        final int[] bands = {0, 1, 2};
+        final int[] stacks = {0, 1, 2};
+        shuffle(bands, 0, 3, rnd);
+        shuffle(stacks, 0, 3, rnd);
+        final int[] rows = new int[9];
+        final int[] cols = new int[9];
+        for (int b = 0; b < 3; b++) {
+            final int[] inside = {0, 1, 2};
+            shuffle(inside, 0, 3, rnd);
+            for (int i = 0; i < 3; i++) {
+                rows[b * 3 + i] = bands[b] * 3 + inside[i];
+            }
+            shuffle(inside, 0, 3, rnd);
+            for (int i = 0; i < 3; i++) {
+                cols[b * 3 + i] = stacks[b] * 3 + inside[i];
+            }
+        }
+        final int[] labels = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        shuffle(labels, 1, 10, rnd);
+        final boolean transpose = rnd.nextBoolean();
+        final byte[] result = new byte[81];
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                final int sourceOffset = transpose ? cols[c] * 9 + rows[r] : rows[r] * 9 + cols[c];
+                result[r * 9 + c] = (byte) labels[cells[sourceOffset]];
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void testIsomorphicFieldsHaveSameCanonicalForm() {
+        final Canonicalizer canonicalizer = new Canonicalizer(3, 3);
+        final SplittableRandom rnd = new SplittableRandom(18L);
+        final SudokuModel model = new SudokuModel(3, 3);
+        for (int i = 0; i < 20; i++) {
+            model.generate(i % 2 == 0 ? 24 : 32, i);
+            final byte[] puzzle = model.cellsAsArray();
+            final byte[] grid = model.solve(1).iterator().next().cellsAsArray();
+            for (final byte[] field : new byte[][]{puzzle, grid}) {
+                final byte[] expected = new byte[81];
+                canonicalizer.canonicalize(field, expected);
+                for (int t = 0; t < 5; t++) {
+                    final byte[] canonical = new byte[81];
+                    canonicalizer.canonicalize(randomIsomorph(field, rnd), canonical);
+                    assertArrayEquals(expected, canonical);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTransformProducesCanonicalForm() {
+        final Canonicalizer canonicalizer = new Canonicalizer(3, 3);
+        final SudokuModel model = new SudokuModel(3, 3);
+        for (int i = 0; i < 20; i++) {
+            model.generate(28, i);
+            final byte[] puzzle = model.cellsAsArray();
+            final byte[] canonical = new byte[81];
+            final Canonicalizer.Transform transform = canonicalizer.canonicalize(puzzle, canonical);
+            final byte[] transformed = new byte[81];
+            transform.apply(puzzle, transformed);
+            assertArrayEquals(canonical, transformed);
+
+            final SudokuModel canonicalModel = new SudokuModel(3, 3);
+            canonicalModel.loadFromArray(canonical);
+            assertEquals(1, canonicalModel.solve(2).size());
+        }
+    }
+
+    @Test
+    void testDifferentPuzzlesHaveDifferentCanonicalForms() {
+        final Canonicalizer canonicalizer = new Canonicalizer(3, 3);
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.generate(28, 1L);
+        final byte[] first = new byte[81];
+        canonicalizer.canonicalize(model.cellsAsArray(), first);
+        model.generate(28, 2L);
+        final byte[] second = new byte[81];
+        canonicalizer.canonicalize(model.cellsAsArray(), second);
+        assertFalse(Arrays.equals(first, second));
+    }
+
+    @Test
+    void testSparseFieldsNeedFewNodes() {
+        // interchangeable empty lines are tried once, so a small budget is enough for sparse fields
+        final Canonicalizer canonicalizer = new Canonicalizer(3, 3, 2_000L);
+        final SplittableRandom rnd = new SplittableRandom(24L);
+        for (int clues = 0; clues < 8; clues++) {
+            final byte[] field = new byte[81];
+            for (int i = 0; i < clues; i++) {
+                field[rnd.nextInt(81)] = (byte) (rnd.nextInt(9) + 1);
+            }
+            final byte[] expected = new byte[81];
+            assertNotNull(canonicalizer.canonicalize(field, expected));
+            for (int t = 0; t < 5; t++) {
+                final byte[] canonical = new byte[81];
+                assertNotNull(canonicalizer.canonicalize(randomIsomorph(field, rnd), canonical));
+                assertArrayEquals(expected, canonical);
+            }
+        }
+        final byte[] empty = new byte[81];
+        canonicalizer.canonicalize(new byte[81], empty);
+        assertArrayEquals(new byte[81], empty);
+    }
+
+    @Test
+    void testNodeBudget() {
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.generate(30, 3L);
+        final byte[] grid = model.solve(1).iterator().next().cellsAsArray();
+        assertNull(new Canonicalizer(3, 3, 100L).canonicalize(grid, new byte[81]));
+        final Canonicalizer canonicalizer = new Canonicalizer(3, 3);
+        assertNull(canonicalizer.canonicalize(grid, new byte[81], () -> true));
+        // a stopped search must not leave the instance stopped
+        assertNotNull(canonicalizer.canonicalize(grid, new byte[81], () -> false));
+        assertNotNull(canonicalizer.canonicalize(grid, new byte[81]));
+        assertThrows(IllegalArgumentException.class, () -> new Canonicalizer(3, 3, 0L));
+    }
+
+    @Test
+    void testUnsupportedFieldSize() {
+        assertThrows(IllegalArgumentException.class, () -> new Canonicalizer(2, 3));
+        assertThrows(IllegalArgumentException.class, () -> new Canonicalizer(4, 4));
+    }
+
+    @Test
+    void testDedupIndexRejectsIsomorphicPuzzlesAfterRestart(@TempDir final Path folder) throws Exception {
+        final Path file = folder.resolve("dedup.idx");
+        final SplittableRandom rnd = new SplittableRandom(7L);
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.generate(30, 5L);
+        final byte[] puzzle = model.cellsAsArray();
+        try (DedupIndex index = new DedupIndex(3, 3, file)) {
+            assertTrue(index.add(puzzle));
+            assertFalse(index.add(randomIsomorph(puzzle, rnd)));
+            assertEquals(1, index.size());
+        }
+        try (DedupIndex index = new DedupIndex(3, 3, file)) {
+            assertEquals(1, index.size());
+            assertTrue(index.contains(randomIsomorph(puzzle, rnd)));
+            model.generate(30, 6L);
+            assertTrue(index.add(model.cellsAsArray()));
+        }
+        try (DedupIndex index = new DedupIndex(3, 3, file)) {
+            assertEquals(2, index.size());
+        }
+    }
+}
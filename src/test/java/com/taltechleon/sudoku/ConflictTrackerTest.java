@@ -0,0 +1,152 @@
+package com.taltechleon.sudoku;
+
+import com.taltechleon.sudoku.model.ConflictTracker;
+import com.taltechleon.sudoku.model.SudokuModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConflictTrackerTest {
+
+    private static Set<String> asText(final List<SudokuModel.Error> errors) {
+        return errors.stream()
+                .map(e -> e.getType() + ":" + e.getColumn() + ":" + e.getRow())
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    // straightforward scan of the field, checks every pair of cells in every unit
+    private static Set<String> scanErrors(final byte[] field) {
+        final Set<String> result = new TreeSet<>();
+        for (int offset = 0; offset < 81; offset++) {
+            final int col = offset % 9;
+            final int row = offset / 9;
+            int used = 0;
+            for (int other = 0; other < 81; other++) {
+                final int otherCol = other % 9;
+                final int otherRow = other / 9;
+                final boolean sameRow = otherRow == row;
+                final boolean sameCol = otherCol == col;
+                final boolean sameSubField = otherRow / 3 == row / 3 && otherCol / 3 == col / 3;
+                final int value = field[other];
+                if (value == 0 || !(sameRow || sameCol || sameSubField)) {
+                    continue;
+                }
+                used |= 1 << value;
+                if (other != offset && value == field[offset]) {
+                    if (sameRow) {
+                        result.add(SudokuModel.ErrorType.ROW_ERROR + ":" + col + ":" + row);
+                    }
+                    if (sameCol) {
+                        result.add(SudokuModel.ErrorType.COLUMN_ERROR + ":" + col + ":" + row);
+                    }
+                    if (sameSubField) {
+                        result.add(SudokuModel.ErrorType.SUBFIELD_ERROR + ":" + col + ":" + row);
+                    }
+                }
+            }
+            if (field[offset] == 0 && used == 0x3FE) {
+                result.add(SudokuModel.ErrorType.NO_CELL_VARIANTS + ":" + col + ":" + row);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void testIncrementalEditsMatchFullScan() {
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.generate(30, 5L);
+        final byte[] field = model.cellsAsArray();
+
+        final ConflictTracker tracker = new ConflictTracker(3, 3);
+        tracker.load(field);
+        assertFalse(tracker.hasErrors());
+
+        final Random random = new Random(17L);
+        for (int i = 0; i < 5_000; i++) {
+            final int offset = random.nextInt(81);
+            final int value = random.nextInt(3) == 0 ? 0 : random.nextInt(9) + 1;
+            field[offset] = (byte) value;
+            tracker.set(offset % 9, offset / 9, value);
+
+            final Set<String> expected = scanErrors(field);
+            assertEquals(expected, asText(tracker.findErrors()), "edit " + i);
+            assertEquals(!expected.isEmpty(), tracker.hasErrors(), "edit " + i);
+
+            final ConflictTracker loaded = new ConflictTracker(3, 3);
+            loaded.load(field);
+            assertEquals(expected, asText(loaded.findErrors()), "edit " + i);
+        }
+    }
+
+    @Test
+    void testConflictsCandidatesAndSolved() {
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.generate(30, 11L);
+        final byte[] solution = model.solve(1).iterator().next().cellsAsArray();
+
+        final ConflictTracker tracker = new ConflictTracker(3, 3);
+        tracker.load(solution);
+        assertTrue(tracker.isSolved());
+        assertFalse(tracker.hasErrors());
+
+        final int value = tracker.get(0, 0);
+        tracker.set(0, 0, 0);
+        assertFalse(tracker.isSolved());
+        assertEquals(1 << (value - 1), tracker.getCandidates(0, 0));
+
+        final int duplicate = tracker.get(1, 0);
+        tracker.set(0, 0, duplicate);
+        assertTrue(tracker.hasErrors());
+        assertTrue(tracker.isConflicting(0, 0));
+        assertTrue(tracker.isConflicting(1, 0));
+        assertFalse(tracker.isConflicting(8, 8));
+
+        tracker.set(0, 0, value);
+        assertTrue(tracker.isSolved());
+        assertFalse(tracker.hasErrors());
+    }
+
+    @Test
+    void testModelErrorsUseSameOrder() {
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.setCellValue(0, 0, 5);
+        model.setCellValue(4, 0, 5);
+        model.setCellValue(0, 4, 5);
+        final var errors = model.findErrors();
+        assertEquals(SudokuModel.ErrorType.ROW_ERROR, errors.get(0).getType());
+        assertEquals(SudokuModel.ErrorType.COLUMN_ERROR, errors.get(2).getType());
+        assertEquals(4, errors.size());
+    }
+
+    @Test
+    void testModelTrackerFollowsEditsLoadsAndGeneration() {
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.generate(30, 5L);
+        assertTrue(model.findErrors().isEmpty());
+
+        final Random random = new Random(23L);
+        for (int i = 0; i < 500; i++) {
+            final int offset = random.nextInt(81);
+            model.setCellValue(offset % 9, offset / 9, random.nextInt(10));
+            assertEquals(scanErrors(model.cellsAsArray()), asText(model.findErrors()), "edit " + i);
+        }
+
+        final SudokuModel other = new SudokuModel(3, 3);
+        other.generate(30, 9L);
+        model.loadFromArray(other.cellsAsArray());
+        assertTrue(model.findErrors().isEmpty());
+
+        model.setCellValue(0, 0, 5);
+        model.setCellValue(1, 0, 5);
+        model.generate(30, 13L);
+        assertTrue(model.findErrors().isEmpty());
+    }
+}
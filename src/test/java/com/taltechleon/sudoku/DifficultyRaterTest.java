@@ -0,0 +1,107 @@
+package com.taltechleon.sudoku;
+
+import com.taltechleon.sudoku.model.DifficultyRater;
+import com.taltechleon.sudoku.model.SudokuModel;
+import com.taltechleon.sudoku.model.Technique;
+import com.taltechleon.sudoku.pool.Difficulty;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DifficultyRaterTest {
+
+    private static byte[] load(final String text) {
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.loadFromText(text);
+        return model.cellsAsArray();
+    }
+
+    @Test
+    void testEasyPuzzleNeedsOnlySingles() {
+        final DifficultyRater.Rating rating = new DifficultyRater(3, 3).rate(load("""
+                53..7....
+                6..195...
+                .98....6.
+                8...6...3
+                4..8.3..1
+                7...2...6
+                .6....28.
+                ...419..5
+                ....8..79
+                """));
+        assertEquals(Technique.NAKED_SINGLE, rating.hardestTechnique());
+        assertFalse(rating.needsGuessing());
+        assertTrue(rating.isUnique());
+        assertEquals(Difficulty.EXTREMELY_EASY, Difficulty.of(rating));
+    }
+
+    @Test
+    void testHardPuzzleNeedsGuessing() {
+        final DifficultyRater.Rating rating = new DifficultyRater(3, 3).rate(load("""
+                8........
+                ..36.....
+                .7..9.2..
+                .5...7...
+                ....457..
+                ...1...3.
+                ..1....68
+                ..85...1.
+                .9....4..
+                """));
+        assertTrue(rating.needsGuessing());
+        assertTrue(rating.isUnique());
+        assertTrue(rating.guesses() > 0L);
+        assertTrue(rating.nodes() > rating.guesses());
+        assertEquals(Difficulty.EVIL, Difficulty.of(rating));
+    }
+
+    @Test
+    void testWrongFields() {
+        final DifficultyRater rater = new DifficultyRater(3, 3);
+        assertEquals(2, rater.rate(new byte[81]).solutions());
+
+        final byte[] conflict = new byte[81];
+        conflict[0] = 5;
+        conflict[1] = 5;
+        final DifficultyRater.Rating rating = rater.rate(conflict);
+        assertNull(rating.hardestTechnique());
+        assertEquals(0, rating.solutions());
+    }
+
+    @Test
+    void testScoreOrder() {
+        final DifficultyRater rater = new DifficultyRater(3, 3);
+        final SudokuModel model = new SudokuModel(3, 3);
+        for (int i = 0; i < 200; i++) {
+            model.generate(i % 2 == 0 ? 40 : 24, i);
+            final DifficultyRater.Rating rating = rater.rate(model.cellsAsArray());
+            assertTrue(rating.isUnique());
+            // every tier has own score range
+            final long score = rating.score();
+            final Difficulty difficulty = Difficulty.of(rating);
+            for (final Difficulty other : Difficulty.values()) {
+                if (other.compareTo(difficulty) < 0) {
+                    assertTrue(score > maxScoreOf(other), difficulty + " " + score);
+                }
+            }
+        }
+    }
+
+    private static long maxScoreOf(final Difficulty difficulty) {
+        switch (difficulty) {
+            case EXTREMELY_EASY:
+                return 100L;
+            case EASY:
+                return 200L;
+            case MEDIUM:
+                return 400L;
+            case DIFFICULT:
+                return 600L;
+            default:
+                return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.taltechleon.sudoku;
+
+import com.taltechleon.sudoku.io.GridCodec;
+import com.taltechleon.sudoku.model.SudokuModel;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GridCodecTest {
+
+    @Test
+    void testPackedFormOfClassicField() {
+        final GridCodec codec = new GridCodec(3, 3);
+        assertEquals(41, codec.getPackedSize());
+
+        final ByteBuffer buffer = ByteBuffer.allocate(codec.getPackedSize() * 3);
+        final byte[][] fields = new byte[3][];
+        for (int i = 0; i < fields.length; i++) {
+            final SudokuModel model = new SudokuModel(3, 3);
+            model.generate(22 + i * 10, i);
+            fields[i] = model.cellsAsArray();
+            codec.writePacked(fields[i], buffer);
+        }
+        assertEquals(buffer.capacity(), buffer.position());
+
+        buffer.flip();
+        final byte[] decoded = new byte[81];
+        for (final byte[] field : fields) {
+            codec.readPacked(buffer, decoded);
+            assertArrayEquals(field, decoded);
+        }
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    void testCluesFormOfSparsePuzzle() {
+        final GridCodec codec = new GridCodec(3, 3);
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.generate(22, 42L);
+        final byte[] cells = model.cellsAsArray();
+        assertEquals(11 + 11, codec.getCluesSize(cells));
+
+        final ByteBuffer buffer = ByteBuffer.allocate(codec.getCluesSize(cells));
+        codec.writeClues(cells, buffer);
+        assertEquals(0, buffer.remaining());
+
+        final byte[] decoded = new byte[81];
+        codec.readClues(buffer.flip(), decoded);
+        assertArrayEquals(cells, decoded);
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    void testBigField() {
+        final GridCodec codec = new GridCodec(5, 5);
+        assertEquals((625 * 5 + 7) / 8, codec.getPackedSize());
+        final byte[] cells = new SudokuModel(5, 5).fillRandom(new Random(1L)).cellsAsArray();
+        cells[17] = 0;
+
+        final ByteBuffer packed = ByteBuffer.allocate(codec.getPackedSize());
+        codec.writePacked(cells, packed);
+        final byte[] decoded = new byte[cells.length];
+        codec.readPacked(packed.flip(), decoded);
+        assertArrayEquals(cells, decoded);
+
+        final ByteBuffer clues = ByteBuffer.allocate(codec.getCluesSize(cells));
+        codec.writeClues(cells, clues);
+        assertEquals((625 + 7) / 8 + (624 * 5 + 7) / 8, clues.capacity());
+        codec.readClues(clues.flip(), decoded);
+        assertArrayEquals(cells, decoded);
+    }
+
+    @Test
+    void testWrongValue() {
+        final GridCodec codec = new GridCodec(3, 3);
+        final byte[] cells = new byte[81];
+        cells[5] = 10;
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.writePacked(cells, ByteBuffer.allocate(codec.getPackedSize())));
+        assertThrows(IllegalArgumentException.class,
+                () -> codec.writePacked(new byte[80], ByteBuffer.allocate(codec.getPackedSize())));
+    }
+}
@@ -1,104 +1,149 @@
 package com.taltechleon.sudoku;
 
+import com.taltechleon.sudoku.io.PuzzleArchive;
+import com.taltechleon.sudoku.io.PuzzleArchiveWriter;
+import com.taltechleon.sudoku.io.PuzzleReader;
+import com.taltechleon.sudoku.model.BatchSolver;
 import com.taltechleon.sudoku.model.SudokuModel;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
-import java.util.zip.GZIPInputStream;
 
 /**
  * <a href="https://www.kaggle.com/datasets/bryanpark/sudoku">Test puzzles from base Kaggle base 10000000 games</a>
  */
 @Disabled("Disabled because takes long time")
 public class KaggleSetTest {
-    private static final List<KaggleSudokuRecord> kaggleSetRecords = new ArrayList<>(1024 * 1024);
+    // converted once from the CSV resource, later runs just map it
+    private static final Path ARCHIVE_FILE = Path.of("target", "kaggle-sudoku.archive");
+    private static PuzzleArchive archive;
 
     @BeforeAll
     public static void beforeAll() throws Exception {
-        System.out.println("Loading Kaggle puzzle set...");
         final long startTime = System.currentTimeMillis();
-        try (final InputStream stream = new GZIPInputStream(Objects.requireNonNull(KaggleSetTest.class.getResourceAsStream("/sudoku.csv.gz")))) {
-            final BufferedReader reader =
-                    new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
-            int counter = 0;
-            String line;
-            while ((line = reader.readLine()) != null) {
-                final String[] split = line.split(",");
-                if (split.length != 2) {
-                    throw new IOException("Unexpectedly read line splitted not to two parts: " + line);
-                }
-                if (counter != 0) {
-                    final KaggleSudokuRecord newRecord =
-                            new KaggleSudokuRecord(split[0].trim(), split[1].trim());
-                    kaggleSetRecords.add(newRecord);
+        if (!Files.isRegularFile(ARCHIVE_FILE)) {
+            System.out.println("Converting Kaggle puzzle set...");
+            convertKaggleSet(ARCHIVE_FILE);
+        }
+        archive = new PuzzleArchive(ARCHIVE_FILE);
+        System.out.println("Opened " + archive.size() + " puzzle(s), spent time " +
+                (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    private static InputStream openKaggleSet() {
+        return Objects.requireNonNull(KaggleSetTest.class.getResourceAsStream("/sudoku.csv.gz"));
+    }
+
+    private static void convertKaggleSet(final Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        final Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (final PuzzleReader reader = new PuzzleReader(openKaggleSet(), 3, 3);
+             final PuzzleArchiveWriter writer = new PuzzleArchiveWriter(temp, 3, 3, true)) {
+            while (reader.next()) {
+                if (!reader.hasSolution()) {
+                    throw new IOException("Expected solution at line " + reader.getLineNumber());
                 }
-                counter++;
+                writer.append(reader.puzzle(), reader.solution(), null);
             }
         }
-        System.out.println("Loaded " + kaggleSetRecords.size() + " puzzle(s), spent time " +
-                (System.currentTimeMillis() - startTime) + " ms");
+        Files.move(temp, target);
     }
 
     @Test
     void testOverKaggleSet() {
         final SudokuModel model = new SudokuModel(3, 3);
-        int counter = 0;
-        System.out.println("Start test, " + kaggleSetRecords.size() + " records");
+        final byte[] puzzle = new byte[81];
+        final byte[] solution = new byte[81];
+        System.out.println("Start test, " + archive.size() + " records");
         final long timeStart = System.currentTimeMillis();
-        for (final KaggleSudokuRecord record : kaggleSetRecords) {
-            model.loadFromArray(record.puzzle);
+        for (long index = 0; index < archive.size(); index++) {
+            archive.readPuzzle(index, puzzle);
+            archive.readSolution(index, solution);
+            model.loadFromArray(puzzle);
             final Set<SudokuModel> solutions = model.solve(Integer.MAX_VALUE);
             Assertions.assertEquals(1, solutions.size(), "Expected only solution");
-            Assertions.assertArrayEquals(record.solution,
+            Assertions.assertArrayEquals(solution,
                     solutions.stream().findFirst().orElseThrow().cellsAsArray());
-            counter++;
-            if (counter % 10000 == 0) {
+            if ((index + 1) % 10000 == 0) {
                 System.out.print(".");
             }
         }
         final long spentTime = System.currentTimeMillis() - timeStart;
         System.out.println(
                 "\nCompleted, spent time " + spentTime + " ms, approx time per puzzle " +
-                        ((double) spentTime / (double) kaggleSetRecords.size()) + " ms");
+                        ((double) spentTime / (double) archive.size()) + " ms");
     }
 
-    private static final class KaggleSudokuRecord {
-        final byte[] puzzle;
-        final byte[] solution;
+    @Test
+    void testOverKaggleSetInBatch() {
+        System.out.println("Start batch test, " + archive.size() + " records");
+        final long timeStart = System.currentTimeMillis();
+        final byte[] solution = new byte[81];
+        try (final BatchSolver batchSolver = new BatchSolver(3, 3)) {
+            batchSolver.solveOrdered(iteratePuzzles(archive), result -> {
+                Assertions.assertEquals(1, result.solutions(), "Expected only solution");
+                archive.readSolution(result.index(), solution);
+                Assertions.assertArrayEquals(solution, result.solution());
+            });
+        }
+        final long spentTime = System.currentTimeMillis() - timeStart;
+        System.out.println(
+                "Completed, spent time " + spentTime + " ms, approx time per puzzle " +
+                        ((double) spentTime / (double) archive.size()) + " ms");
+    }
+
+    @Test
+    void testStreamingKaggleSetInBatch() throws IOException {
+        final long timeStart = System.currentTimeMillis();
+        final long[] counter = new long[1];
+        try (final PuzzleReader reader = new PuzzleReader(openKaggleSet(), 3, 3);
+             final BatchSolver batchSolver = new BatchSolver(3, 3)) {
+            // solver pulls puzzles only when there is room in its window
+            batchSolver.solveUnordered(reader.puzzles(), result -> {
+                Assertions.assertEquals(1, result.solutions(), "Expected only solution");
+                final SudokuModel solution = new SudokuModel(3, 3);
+                solution.loadFromArray(result.solution());
+                Assertions.assertTrue(solution.isCorrectlyFilled());
+                for (int i = 0; i < result.puzzle().length; i++) {
+                    if (result.puzzle()[i] != 0) {
+                        Assertions.assertEquals(result.puzzle()[i], result.solution()[i]);
+                    }
+                }
+                counter[0]++;
+            });
+        }
+        final long spentTime = System.currentTimeMillis() - timeStart;
+        System.out.println("Streamed and solved " + counter[0] + " puzzle(s), spent time " + spentTime + " ms");
+    }
+
+    private static Iterator<byte[]> iteratePuzzles(final PuzzleArchive archive) {
+        final byte[] buffer = new byte[81];
+        return new Iterator<>() {
+            private long index;
 
-        KaggleSudokuRecord(final String puzzle, final String solution) {
-            if (puzzle.length() != solution.length()) {
-                throw new IllegalArgumentException("Puzzle and solution has different size");
+            @Override
+            public boolean hasNext() {
+                return this.index < archive.size();
             }
-            this.puzzle = new byte[puzzle.length()];
-            this.solution = new byte[solution.length()];
 
-            for (int i = 0; i < puzzle.length(); i++) {
-                final int p = puzzle.charAt(i) - '0';
-                final int s = solution.charAt(i) - '0';
-                if (p < 0 || p > 9) {
-                    throw new IllegalArgumentException(
-                            "Detected unexpected char for puzzle: " + puzzle.charAt(i));
+            @Override
+            public byte[] next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
                 }
-                if (s < 0 || s > 9) {
-                    throw new IllegalArgumentException(
-                            "Detected unexpected char for solution: " + solution.charAt(i));
-                }
-                this.puzzle[i] = (byte) p;
-                this.solution[i] = (byte) s;
+                archive.readPuzzle(this.index++, buffer);
+                return buffer;
             }
-        }
+        };
     }
-
 }
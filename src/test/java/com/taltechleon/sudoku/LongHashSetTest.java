@@ -0,0 +1,58 @@
+package com.taltechleon.sudoku;
+
+import com.taltechleon.sudoku.util.LongHashSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongHashSetTest {
+
+    private static void assertSameAsHashSet(final LongHashSet set) {
+        final Set<Long> expected = new HashSet<>();
+        final SplittableRandom rnd = new SplittableRandom(1L);
+        for (int i = 0; i < 100_000; i++) {
+            // small range gives a lot of repeats
+            final long value = rnd.nextLong(-30_000L, 30_000L) * 0x10000L;
+            assertEquals(expected.add(value), set.add(value));
+        }
+        assertEquals(expected.size(), set.size());
+        for (long value = -30_000L; value < 30_000L; value += 7L) {
+            assertEquals(expected.contains(value * 0x10000L), set.contains(value * 0x10000L));
+        }
+    }
+
+    @Test
+    void testAgainstHashSet() {
+        assertSameAsHashSet(new LongHashSet());
+    }
+
+    @Test
+    void testDirectStorageAgainstHashSet() {
+        assertSameAsHashSet(new LongHashSet(0, LongHashSet.Storage.DIRECT));
+    }
+
+    @Test
+    void testZeroAndClear() {
+        for (final LongHashSet.Storage storage : LongHashSet.Storage.values()) {
+            assertZeroAndClear(new LongHashSet(0, storage));
+        }
+    }
+
+    private static void assertZeroAndClear(final LongHashSet set) {
+        assertFalse(set.contains(0L));
+        assertTrue(set.add(0L));
+        assertFalse(set.add(0L));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertEquals(2, set.size());
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0L));
+        assertFalse(set.contains(Long.MIN_VALUE));
+    }
+}
@@ -0,0 +1,79 @@
+package com.taltechleon.sudoku;
+
+import com.taltechleon.sudoku.io.PuzzleArchive;
+import com.taltechleon.sudoku.io.PuzzleArchiveWriter;
+import com.taltechleon.sudoku.model.SudokuModel;
+import com.taltechleon.sudoku.pool.Difficulty;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PuzzleArchiveTest {
+
+    @Test
+    void testRandomAccessOverSeveralSegments(@TempDir final Path folder) throws Exception {
+        final Path file = folder.resolve("puzzles.archive");
+        final int records = 50;
+        final byte[][] puzzles = new byte[records][];
+        final byte[][] solutions = new byte[records][];
+        try (PuzzleArchiveWriter writer = new PuzzleArchiveWriter(file, 3, 3, true)) {
+            for (int i = 0; i < records; i++) {
+                final Difficulty difficulty = Difficulty.values()[i % Difficulty.values().length];
+                final SudokuModel model = new SudokuModel(3, 3);
+                model.generate(difficulty.getClues(), SudokuModel.puzzleSeed(7L, i));
+                puzzles[i] = model.cellsAsArray();
+                solutions[i] = model.solve(1).iterator().next().cellsAsArray();
+                writer.append(puzzles[i], solutions[i], i == 0 ? null : difficulty);
+            }
+        }
+
+        // small segments to check mapping of big archives
+        final PuzzleArchive archive = new PuzzleArchive(file, 1000);
+        assertEquals(records, archive.size());
+        assertTrue(archive.hasSolutions());
+        final byte[] cells = new byte[81];
+        for (int i = records - 1; i >= 0; i--) {
+            archive.readPuzzle(i, cells);
+            assertArrayEquals(puzzles[i], cells);
+            assertTrue(archive.readSolution(i, cells));
+            assertArrayEquals(solutions[i], cells);
+            final Difficulty difficulty = Difficulty.values()[i % Difficulty.values().length];
+            assertEquals(difficulty.getClues(), archive.getClues(i));
+            if (i == 0) {
+                assertNull(archive.getDifficulty(i));
+            } else {
+                assertEquals(difficulty, archive.getDifficulty(i));
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> archive.readPuzzle(records, cells));
+    }
+
+    @Test
+    void testArchiveWithoutSolutions(@TempDir final Path folder) throws Exception {
+        final Path file = folder.resolve("puzzles.archive");
+        final byte[] puzzle = new SudokuModel(5, 5).fillBase().cellsAsArray();
+        puzzle[3] = 0;
+        try (PuzzleArchiveWriter writer = new PuzzleArchiveWriter(file, 5, 5, false)) {
+            writer.append(puzzle, null, Difficulty.EASY);
+            assertThrows(IllegalArgumentException.class, () -> writer.append(new byte[81], null, null));
+            assertEquals(1L, writer.size());
+        }
+
+        final PuzzleArchive archive = new PuzzleArchive(file);
+        assertEquals(1L, archive.size());
+        assertEquals(5, archive.getSubFieldSize());
+        final byte[] cells = new byte[625];
+        archive.readPuzzle(0, cells);
+        assertArrayEquals(puzzle, cells);
+        assertFalse(archive.readSolution(0, cells));
+        assertEquals(624, archive.getClues(0));
+    }
+}
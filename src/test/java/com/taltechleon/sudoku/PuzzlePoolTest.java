@@ -0,0 +1,130 @@
+package com.taltechleon.sudoku;
+
+import com.taltechleon.sudoku.model.DifficultyRater;
+import com.taltechleon.sudoku.model.SudokuModel;
+import com.taltechleon.sudoku.pool.DedupIndex;
+import com.taltechleon.sudoku.pool.Difficulty;
+import com.taltechleon.sudoku.pool.PuzzlePool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PuzzlePoolTest {
+
+    private static int countClues(final SudokuModel model) {
+        int result = 0;
+        for (final byte cell : model.cellsAsArray()) {
+            if (cell != 0) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    private static void awaitFilled(final PuzzlePool pool, final int capacity) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 60_000L;
+        for (final Difficulty difficulty : Difficulty.values()) {
+            while (pool.getMetrics(difficulty).available() < capacity) {
+                assertTrue(System.currentTimeMillis() < deadline, "Pool is not filled in time");
+                Thread.sleep(10L);
+            }
+        }
+    }
+
+    @Test
+    void testTakeFromFilledPool() throws Exception {
+        try (PuzzlePool pool = new PuzzlePool(3, 3, 4, 2)) {
+            awaitFilled(pool, 4);
+            for (final Difficulty difficulty : Difficulty.values()) {
+                final SudokuModel puzzle = pool.take(difficulty);
+                assertEquals(difficulty.getClues(), countClues(puzzle));
+                assertEquals(1, puzzle.solve(2).size());
+
+                final PuzzlePool.Metrics metrics = pool.getMetrics(difficulty);
+                assertEquals(1L, metrics.hits());
+                assertEquals(0L, metrics.misses());
+                assertTrue(metrics.generated() >= 4L);
+            }
+        }
+    }
+
+    @Test
+    void testPuzzlesPersistBetweenRestarts(@TempDir final Path folder) throws Exception {
+        final Path storage = folder.resolve("pool.bin");
+        try (PuzzlePool pool = new PuzzlePool(3, 3, 3, 0, 1, storage)) {
+            awaitFilled(pool, 3);
+        }
+        assertTrue(Files.size(storage) > 0L);
+
+        try (PuzzlePool pool = new PuzzlePool(3, 3, 3, 0, 1, storage)) {
+            for (final Difficulty difficulty : Difficulty.values()) {
+                assertEquals(3, pool.getMetrics(difficulty).available());
+                final SudokuModel puzzle = pool.poll(difficulty);
+                assertNotNull(puzzle);
+                assertEquals(difficulty.getClues(), countClues(puzzle));
+            }
+        }
+    }
+
+    @Test
+    void testRatedPoolSortsPuzzlesByMeasuredDifficulty() throws Exception {
+        try (PuzzlePool pool = new PuzzlePool(3, 3, 2, 0, 2, null, null, true)) {
+            awaitFilled(pool, 2);
+            final DifficultyRater rater = new DifficultyRater(3, 3);
+            for (final Difficulty difficulty : Difficulty.values()) {
+                for (int i = 0; i < 2; i++) {
+                    final SudokuModel puzzle = pool.poll(difficulty);
+                    assertNotNull(puzzle);
+                    final DifficultyRater.Rating rating = rater.rate(puzzle.cellsAsArray());
+                    assertTrue(rating.isUnique());
+                    assertEquals(difficulty, Difficulty.of(rating));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testRatedTakeMatchesMeasuredDifficulty() throws Exception {
+        try (PuzzlePool pool = new PuzzlePool(3, 3, 1, 0, 1, null, null, true)) {
+            final DifficultyRater rater = new DifficultyRater(3, 3);
+            for (final Difficulty difficulty : Difficulty.values()) {
+                // the second take usually finds the tier empty and generates inline
+                for (int i = 0; i < 2; i++) {
+                    final SudokuModel puzzle = pool.take(difficulty);
+                    assertNotNull(puzzle);
+                    assertEquals(difficulty, Difficulty.of(rater.rate(puzzle.cellsAsArray())));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDedupIndexKnowsServedAndLoadedPuzzles(@TempDir final Path folder) throws Exception {
+        final Path storage = folder.resolve("pool.bin");
+        try (DedupIndex index = new DedupIndex(3, 3, folder.resolve("first.idx"))) {
+            try (PuzzlePool pool = new PuzzlePool(3, 3, 1, 0, 1, storage, index)) {
+                for (final Difficulty difficulty : Difficulty.values()) {
+                    // the second take usually finds the tier empty and generates inline
+                    for (int i = 0; i < 2; i++) {
+                        assertTrue(index.contains(pool.take(difficulty).cellsAsArray()));
+                    }
+                }
+                awaitFilled(pool, 1);
+            }
+        }
+        try (DedupIndex index = new DedupIndex(3, 3, folder.resolve("second.idx"));
+             PuzzlePool pool = new PuzzlePool(3, 3, 1, 0, 1, storage, index)) {
+            for (final Difficulty difficulty : Difficulty.values()) {
+                final SudokuModel puzzle = pool.poll(difficulty);
+                assertNotNull(puzzle);
+                assertTrue(index.contains(puzzle.cellsAsArray()));
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.taltechleon.sudoku;
+
+import com.taltechleon.sudoku.io.PuzzleReader;
+import com.taltechleon.sudoku.model.BatchSolver;
+import com.taltechleon.sudoku.model.SudokuModel;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PuzzleReaderTest {
+
+    private static String toLine(final byte[] cells, final char emptyChar) {
+        final StringBuilder result = new StringBuilder(cells.length);
+        for (final byte cell : cells) {
+            result.append(cell == 0 ? emptyChar : (char) ('0' + cell));
+        }
+        return result.toString();
+    }
+
+    private static byte[][] makePuzzles(final int count) {
+        final byte[][] result = new byte[count * 2][];
+        for (int i = 0; i < count; i++) {
+            final SudokuModel model = new SudokuModel(3, 3);
+            model.generate(30, SudokuModel.puzzleSeed(11L, i));
+            result[i * 2] = model.cellsAsArray();
+            result[i * 2 + 1] = model.solve(1).iterator().next().cellsAsArray();
+        }
+        return result;
+    }
+
+    private static byte[] gzip(final byte[] data) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(result)) {
+            out.write(data);
+        }
+        return result.toByteArray();
+    }
+
+    @Test
+    void testKaggleFormatWithHeaderPlainAndGzipped() throws IOException {
+        final byte[][] puzzles = makePuzzles(20);
+        final StringBuilder csv = new StringBuilder("quizzes,solutions\r\n");
+        for (int i = 0; i < puzzles.length; i += 2) {
+            csv.append(toLine(puzzles[i], '0')).append(',').append(toLine(puzzles[i + 1], '0')).append("\r\n");
+        }
+        final byte[] data = csv.toString().getBytes(StandardCharsets.US_ASCII);
+
+        for (final byte[] source : new byte[][] {data, gzip(data)}) {
+            try (PuzzleReader reader = new PuzzleReader(new ByteArrayInputStream(source), 3, 3)) {
+                for (int i = 0; i < puzzles.length; i += 2) {
+                    assertTrue(reader.next());
+                    assertTrue(reader.hasSolution());
+                    assertArrayEquals(puzzles[i], reader.puzzle());
+                    assertArrayEquals(puzzles[i + 1], reader.solution());
+                }
+                assertFalse(reader.next());
+                assertEquals(20, reader.getRecords());
+            }
+        }
+    }
+
+    @Test
+    void testLineFormat() throws IOException {
+        final byte[][] puzzles = makePuzzles(3);
+        final String text = "# generated\n" + toLine(puzzles[0], '.') + "\n\n" + toLine(puzzles[2], '.') + '\n'
+                + toLine(puzzles[4], '0');
+        try (PuzzleReader reader = new PuzzleReader(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)), 3, 3)) {
+            final byte[] buffer = reader.puzzle();
+            for (int i = 0; i < puzzles.length; i += 2) {
+                assertTrue(reader.next());
+                assertFalse(reader.hasSolution());
+                assertSame(buffer, reader.puzzle());
+                assertArrayEquals(puzzles[i], reader.puzzle());
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void testWrongRecordAfterData() throws IOException {
+        final byte[][] puzzles = makePuzzles(1);
+        final String text = toLine(puzzles[0], '.') + "\n" + toLine(puzzles[0], '.').substring(1) + "\n";
+        try (PuzzleReader reader = new PuzzleReader(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII)), 3, 3)) {
+            assertTrue(reader.next());
+            assertThrows(IOException.class, reader::next);
+        }
+    }
+
+    @Test
+    void testStreamIntoBatchSolver() throws IOException {
+        final byte[][] puzzles = makePuzzles(40);
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < puzzles.length; i += 2) {
+            text.append(toLine(puzzles[i], '.')).append('\n');
+        }
+        try (PuzzleReader reader = new PuzzleReader(
+                new ByteArrayInputStream(gzip(text.toString().getBytes(StandardCharsets.US_ASCII))), 3, 3);
+             BatchSolver solver = new BatchSolver(3, 3, 2, 2)) {
+            final int[] counter = new int[1];
+            solver.solveOrdered(reader.puzzles(), result -> {
+                assertTrue(result.isUnique());
+                assertArrayEquals(puzzles[(int) result.index() * 2], result.puzzle());
+                assertArrayEquals(puzzles[(int) result.index() * 2 + 1], result.solution());
+                counter[0]++;
+            });
+            assertEquals(40, counter[0]);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.taltechleon.sudoku;
+
+import com.taltechleon.sudoku.io.SolutionStore;
+import com.taltechleon.sudoku.model.SolveControl;
+import com.taltechleon.sudoku.model.SudokuModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolutionStoreTest {
+
+    private static SudokuModel sparsePuzzle() {
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.loadFromText("""
+                1........
+                ....2....
+                ........3
+                .4.......
+                ......5..
+                ..6......
+                .......7.
+                ...8.....
+                .....9...
+                """);
+        return model;
+    }
+
+    @Test
+    void testEnumerateIntoMappedFile(@TempDir final Path folder) throws Exception {
+        final Path file = folder.resolve("solutions.bin");
+        final SudokuModel model = sparsePuzzle();
+        // small segments make the store grow through several mappings
+        try (SolutionStore store = new SolutionStore(3, 3, file, true, 4096)) {
+            assertEquals(SudokuModel.SolveStatus.LIMIT_REACHED,
+                    model.enumerate(20_000, store, SolveControl.unlimited()));
+            assertEquals(20_000L, store.size());
+
+            final Set<SudokuModel> expected = model.solve(20_000, SudokuModel.SolverEngine.BIT_MASK, s -> {
+            });
+            final SudokuModel stored = new SudokuModel(3, 3);
+            for (final byte[] cells : store) {
+                stored.loadFromArray(cells);
+                assertTrue(stored.isCorrectlyFilled());
+                assertTrue(expected.contains(stored));
+            }
+
+            final byte[] first = new byte[81];
+            store.read(0L, first);
+            assertFalse(store.add(first));
+            assertEquals(20_000L, store.size());
+        }
+        assertEquals(20_000L * 41, Files.size(file));
+    }
+
+    @Test
+    void testDirectMemoryStore() throws Exception {
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.generate(30, 20L);
+        try (SolutionStore store = new SolutionStore(3, 3, null, false)) {
+            assertEquals(SudokuModel.SolveStatus.COMPLETED, model.enumerate(10, store, SolveControl.unlimited()));
+            assertEquals(1L, store.size());
+            final byte[] solution = new byte[81];
+            store.read(0L, solution);
+            assertEquals(model.solve(1).iterator().next(), toModel(solution));
+            assertThrows(IndexOutOfBoundsException.class, () -> store.read(1L, solution));
+
+            final Set<Long> fingerprints = new HashSet<>();
+            assertTrue(store.add(solution));
+            for (final byte[] cells : store) {
+                fingerprints.add(SudokuModel.fingerprint(cells));
+            }
+            assertEquals(2L, store.size());
+            assertEquals(1, fingerprints.size());
+        }
+    }
+
+    @Test
+    void testEnumerationCancel() throws Exception {
+        final SolveControl control = SolveControl.unlimited();
+        control.cancel();
+        try (SolutionStore store = new SolutionStore(3, 3, null, false)) {
+            assertEquals(SudokuModel.SolveStatus.CANCELLED,
+                    sparsePuzzle().enumerate(Integer.MAX_VALUE, store, control));
+            assertTrue(store.size() < Integer.MAX_VALUE);
+        }
+    }
+
+    private static SudokuModel toModel(final byte[] cells) {
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.loadFromArray(cells);
+        return model;
+    }
+}
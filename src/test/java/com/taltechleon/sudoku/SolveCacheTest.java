@@ -0,0 +1,122 @@
+package com.taltechleon.sudoku;
+
+import com.taltechleon.sudoku.model.SolveCache;
+import com.taltechleon.sudoku.model.SudokuModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolveCacheTest {
+
+    // transposed field with swapped first and second bands and relabeled values
+    private static byte[] isomorph(final byte[] cells) {
+        final byte[] result = new byte[81];
+        for (int row = 0; row < 9; row++) {
+            final int sourceCol = row < 3 ? row + 3 : row < 6 ? row - 3 : row;
+            for (int col = 0; col < 9; col++) {
+                final int value = cells[col * 9 + sourceCol];
+                result[row * 9 + col] = (byte) (value == 0 ? 0 : value % 9 + 1);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void testSolvabilityAndRepeatedHits() {
+        final SolveCache cache = new SolveCache(3, 3, 1024, false);
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.generate(28, 19L);
+        final byte[] puzzle = model.cellsAsArray();
+        final byte[] expected = model.solve(1).iterator().next().cellsAsArray();
+
+        final SolveCache.Result first = cache.check(puzzle);
+        assertEquals(SolveCache.Solvability.UNIQUE, first.solvability());
+        assertArrayEquals(expected, first.solution());
+        assertArrayEquals(expected, cache.check(puzzle).solution());
+
+        assertEquals(SolveCache.Solvability.MULTIPLE, cache.check(new byte[81]).solvability());
+        final byte[] broken = puzzle.clone();
+        for (int i = 0; i < 81; i++) {
+            if (broken[i] == 0) {
+                // the value of another cell of the solution in the same row makes a dead end
+                broken[i] = expected[i / 9 * 9 + (i % 9 + 1) % 9];
+                if (cache.check(broken).solvability() == SolveCache.Solvability.NO_SOLUTIONS) {
+                    break;
+                }
+            }
+        }
+        final SolveCache.Result none = cache.check(broken);
+        assertEquals(SolveCache.Solvability.NO_SOLUTIONS, none.solvability());
+        assertNull(none.solution());
+
+        final SolveCache.Metrics metrics = cache.getMetrics();
+        assertTrue(metrics.hits() >= 2L);
+        assertTrue(metrics.hitRate() > 0.0d);
+    }
+
+    @Test
+    void testIsomorphicFieldUsesCanonicalEntry() {
+        final SolveCache cache = new SolveCache(3, 3, 1024, true);
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.generate(26, 3L);
+        final byte[] puzzle = model.cellsAsArray();
+        cache.check(puzzle);
+
+        final byte[] other = isomorph(puzzle);
+        final SolveCache.Result result = cache.check(other);
+        assertEquals(SolveCache.Solvability.UNIQUE, result.solvability());
+        final SudokuModel otherModel = new SudokuModel(3, 3);
+        otherModel.loadFromArray(other);
+        assertArrayEquals(otherModel.solve(1).iterator().next().cellsAsArray(), result.solution());
+
+        final SolveCache.Metrics metrics = cache.getMetrics();
+        assertEquals(1L, metrics.misses());
+        assertEquals(1L, metrics.canonicalHits());
+    }
+
+    @Test
+    void testSparseFieldsAreNotCanonicalized() {
+        final SolveCache cache = new SolveCache(3, 3, 1024, true);
+        final byte[] field = new byte[81];
+        field[10] = 3;
+        field[50] = 7;
+        assertEquals(SolveCache.Solvability.MULTIPLE, cache.check(field).solvability());
+        assertEquals(SolveCache.Solvability.MULTIPLE, cache.check(isomorph(field)).solvability());
+        assertEquals(SolveCache.Solvability.MULTIPLE, cache.check(new byte[81]).solvability());
+
+        final SolveCache.Metrics metrics = cache.getMetrics();
+        assertEquals(3L, metrics.misses());
+        assertEquals(0L, metrics.canonicalHits());
+        assertEquals(3, metrics.size());
+    }
+
+    @Test
+    void testEviction() {
+        final SolveCache cache = new SolveCache(3, 3, 32, false);
+        final SudokuModel model = new SudokuModel(3, 3);
+        for (int i = 0; i < 100; i++) {
+            model.generate(40, i);
+            cache.check(model.cellsAsArray());
+        }
+        final SolveCache.Metrics metrics = cache.getMetrics();
+        assertTrue(metrics.size() <= 32);
+        assertEquals(100L - metrics.size(), metrics.evictions());
+    }
+
+    @Test
+    void testStoppedCheckIsNotCached() {
+        final SolveCache cache = new SolveCache(3, 3, 1024, true);
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.generate(24, 7L);
+        final byte[] puzzle = model.cellsAsArray();
+
+        assertNull(cache.check(puzzle, () -> true));
+        assertEquals(0, cache.size());
+
+        assertEquals(SolveCache.Solvability.UNIQUE, cache.check(puzzle, () -> false).solvability());
+        assertEquals(2, cache.size());
+    }
+}
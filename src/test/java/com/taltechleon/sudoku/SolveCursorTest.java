@@ -0,0 +1,83 @@
+package com.taltechleon.sudoku;
+
+import com.taltechleon.sudoku.model.SolveCursor;
+import com.taltechleon.sudoku.model.SudokuModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolveCursorTest {
+
+    private static SudokuModel makeSparseField() {
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.loadFromText("""
+                8.. ... ...
+                ..3 6.. ...
+                .7. .9. 2..
+                .5. ..7 ...
+                ... .4. 7..
+                ... 1.. .3.
+                ..1 ... .6.
+                ..8 ... .1.
+                .9. ... 4..
+                """);
+        return model;
+    }
+
+    @Test
+    void testStepWithCheckpointsFindsAllSolutions() {
+        final SudokuModel model = makeSparseField();
+        final Set<SudokuModel> expected = model.solve(Integer.MAX_VALUE, SudokuModel.SolverEngine.DANCING_LINKS, s -> {
+        });
+        assertTrue(expected.size() > 10);
+
+        final Set<SudokuModel> found = new HashSet<>();
+        final byte[] buffer = new byte[81];
+        SolveCursor cursor = model.makeSolveCursor();
+        SolveCursor.Status status;
+        int steps = 0;
+        do {
+            status = cursor.step(7);
+            if (status == SolveCursor.Status.SOLUTION) {
+                cursor.copySolution(buffer);
+                final SudokuModel solution = new SudokuModel(3, 3);
+                solution.loadFromArray(buffer);
+                assertTrue(solution.isCorrectlyFilled());
+                found.add(solution);
+            }
+            if (++steps % 3 == 0) {
+                cursor = SolveCursor.restore(cursor.checkpoint());
+            }
+        } while (status != SolveCursor.Status.FINISHED);
+
+        assertTrue(cursor.isFinished());
+        assertEquals(expected.size(), cursor.getFoundSolutions());
+        assertEquals(expected, found);
+    }
+
+    @Test
+    void testLargeFieldWithoutRecursion() {
+        final SudokuModel model = new SudokuModel(5, 5).fillBase();
+        final byte[] cells = model.cellsAsArray();
+        for (int i = 0; i < cells.length; i += 2) {
+            cells[i] = 0;
+        }
+        model.loadFromArray(cells);
+
+        final SolveCursor cursor = model.makeSolveCursor();
+        SolveCursor.Status status;
+        do {
+            status = cursor.step(1000);
+        } while (status == SolveCursor.Status.PAUSED);
+
+        assertEquals(SolveCursor.Status.SOLUTION, status);
+        final byte[] buffer = new byte[cells.length];
+        cursor.copySolution(buffer);
+        model.loadFromArray(buffer);
+        assertTrue(model.isCorrectlyFilled());
+    }
+}
@@ -0,0 +1,121 @@
+package com.taltechleon.sudoku;
+
+import com.taltechleon.sudoku.model.LatencyHistogram;
+import com.taltechleon.sudoku.model.SolveControl;
+import com.taltechleon.sudoku.model.SolverStatistics;
+import com.taltechleon.sudoku.model.SudokuModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SolverStatisticsTest {
+    private static final String HARD_PUZZLE = """
+            8........
+            ..36.....
+            .7..9.2..
+            .5...7...
+            ....457..
+            ...1...3.
+            ..1....68
+            ..85...1.
+            .9....4..
+            """;
+    // plain backtracking doesn't collect statistics
+    private static final SudokuModel.SolverEngine[] COUNTING_ENGINES = {
+            SudokuModel.SolverEngine.CONSTRAINT_PROPAGATION,
+            SudokuModel.SolverEngine.BIT_MASK,
+            SudokuModel.SolverEngine.DANCING_LINKS,
+            SudokuModel.SolverEngine.PARALLEL};
+
+    private static SudokuModel load(final String text) {
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.loadFromText(text);
+        return model;
+    }
+
+    @Test
+    void testHistogramPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getValueAtPercentile(50.0d));
+        for (long value = 1L; value <= 1000L; value++) {
+            histogram.record(value * 1000L);
+        }
+        assertEquals(1000L, histogram.getCount());
+        final long median = histogram.getValueAtPercentile(50.0d);
+        assertTrue(median >= 500_000L && median <= 500_000L * 9 / 8, "Median: " + median);
+        final long max = histogram.getMaxValue();
+        assertTrue(max >= 1_000_000L && max <= 1_000_000L * 9 / 8, "Max: " + max);
+        histogram.reset();
+        assertEquals(0L, histogram.getCount());
+        // small values are exact
+        histogram.record(7L);
+        assertEquals(7L, histogram.getMaxValue());
+    }
+
+    @Test
+    void testCountersOfHardPuzzle() {
+        for (final SudokuModel.SolverEngine engine : COUNTING_ENGINES) {
+            final SolverStatistics statistics = new SolverStatistics();
+            final SudokuModel model = load(HARD_PUZZLE);
+            model.setStatistics(statistics);
+            assertEquals(1, model.solve(2, engine, SolveControl.unlimited(), s -> {
+            }).solutions().size());
+
+            final SolverStatistics.Snapshot snapshot = statistics.snapshot();
+            assertEquals(1L, snapshot.solves(), engine.name());
+            assertTrue(snapshot.nodes() > 1L, engine.name());
+            assertTrue(snapshot.guesses() > 0L, engine.name());
+            assertTrue(snapshot.backtracks() > 0L, engine.name());
+            assertTrue(snapshot.maxDepth() > 0, engine.name());
+            assertEquals(1L, statistics.getLatency().getCount());
+            assertTrue(statistics.getLatency().getMaxValue() > 0L);
+        }
+    }
+
+    private static SolverStatistics.Snapshot solveWithStatistics(final SudokuModel.SolverEngine engine,
+                                                                 final int limitSolutions) {
+        final SolverStatistics statistics = new SolverStatistics();
+        final SudokuModel model = load(HARD_PUZZLE);
+        model.setStatistics(statistics);
+        model.solve(limitSolutions, engine, SolveControl.unlimited(), s -> {
+        });
+        return statistics.snapshot();
+    }
+
+    @Test
+    void testCountersAreComparableBetweenEngines() {
+        // both engines use hidden pair propagation and the same branch cells, split levels included
+        final SolverStatistics.Snapshot serial =
+                solveWithStatistics(SudokuModel.SolverEngine.CONSTRAINT_PROPAGATION, 2);
+        final SolverStatistics.Snapshot parallel = solveWithStatistics(SudokuModel.SolverEngine.PARALLEL, 2);
+        assertEquals(serial.maxDepth(), parallel.maxDepth());
+        assertEquals(parallel.nodes() - 1L, parallel.guesses());
+
+        // every guess is a tried child node, also when the search stops on the first solution
+        for (final SudokuModel.SolverEngine engine : COUNTING_ENGINES) {
+            final SolverStatistics.Snapshot snapshot = solveWithStatistics(engine, 1);
+            assertTrue(snapshot.guesses() < snapshot.nodes(), engine.name());
+        }
+    }
+
+    @Test
+    void testPropagationOnlyPuzzleHasNoGuesses() {
+        final SudokuModel model = new SudokuModel(3, 3);
+        model.generate(36, 22L);
+        final SolverStatistics statistics = new SolverStatistics();
+        model.setStatistics(statistics);
+        model.solve(2);
+        final SolverStatistics.Snapshot snapshot = statistics.snapshot();
+        assertEquals(1L, snapshot.nodes());
+        assertEquals(0L, snapshot.guesses());
+        assertEquals(0, snapshot.maxDepth());
+        assertTrue(snapshot.eliminations() >= 81L - 36L);
+
+        statistics.reset();
+        assertEquals(new SolverStatistics.Snapshot(0L, 0L, 0L, 0L, 0L, 0), statistics.snapshot());
+        model.setStatistics(null);
+        model.solve(2);
+        assertEquals(0L, statistics.snapshot().solves());
+    }
+}
@@ -1,13 +1,27 @@
 package com.taltechleon.sudoku;
 
+import com.taltechleon.sudoku.model.SolveControl;
 import com.taltechleon.sudoku.model.SudokuModel;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 class SudokuModelTest {
@@ -26,19 +40,22 @@ class SudokuModelTest {
             fail(() -> "Sudoku field errors: " + errors);
         }
 
-        var solution =
-                sudoku.solve(2);
-        if (solution.isEmpty()) {
-            throw new IllegalStateException("Can't find any solution for sudoku");
+        for (final SudokuModel.SolverEngine engine : SudokuModel.SolverEngine.values()) {
+            var solution =
+                    sudoku.solve(2, engine, s -> {
+                    });
+            if (solution.isEmpty()) {
+                throw new IllegalStateException("Can't find any solution for sudoku, engine " + engine);
+            }
+            if (solution.size() != 1) {
+                fail("Extected only solution but found " + solution.size() + ", engine " + engine);
+            }
+
+            var foundSolution =
+                    solution.stream().findFirst().orElseThrow().cellsAsText().replaceAll("\\s", "");
+            assertEquals(expectedSolution.replaceAll("\\s", "").toUpperCase(Locale.ENGLISH),
+                    foundSolution, engine.name());
         }
-        if (solution.size() != 1) {
-            fail("Extected only solution but found " + solution.size());
-        }
-
-        var foundSolution =
-                solution.stream().findFirst().orElseThrow().cellsAsText().replaceAll("\\s", "");
-        assertEquals(expectedSolution.replaceAll("\\s", "").toUpperCase(Locale.ENGLISH),
-                foundSolution);
     }
 
     @Test
@@ -230,5 +247,282 @@ class SudokuModelTest {
         );
     }
 
+    @Test
+    void testSolverEnginesFindSameSolutions() {
+        final SudokuModel solver = new SudokuModel(3, 3);
+        solver.loadFromText("""
+                  926 571 483
+                  351 486 279
+                  874 923 516
+                  
+                  582 367 194
+                  149 258 367
+                  763 1.. 825
+                  
+                  238 7.. 651
+                  617 835 942
+                  495 612 738
+                """);
+
+        for (final SudokuModel.SolverEngine engine : SudokuModel.SolverEngine.values()) {
+            final Set<SudokuModel> solutions = solver.solve(Integer.MAX_VALUE, engine, s -> {
+            });
+            assertEquals(2, solutions.size(), engine.name());
+            assertEquals(solver.solve(Integer.MAX_VALUE, SudokuModel.SolverEngine.BACKTRACKING, s -> {
+            }), solutions, engine.name());
+            assertEquals(1, solver.solve(1, engine, s -> {
+            }).size(), engine.name());
+        }
+    }
+
+    @Test
+    void testSudoku25x25ByFastEngines() {
+        final SudokuModel sudoku = new SudokuModel(5, 5);
+        sudoku.fillBase();
+        final byte[] cells = sudoku.cellsAsArray();
+        for (int i = 0; i < cells.length; i += 3) {
+            cells[i] = 0;
+        }
+        sudoku.loadFromArray(cells);
+
+        for (final SudokuModel.SolverEngine engine : new SudokuModel.SolverEngine[] {
+                SudokuModel.SolverEngine.BIT_MASK, SudokuModel.SolverEngine.DANCING_LINKS}) {
+            final Set<SudokuModel> solutions = sudoku.solve(3, engine, s -> {
+            });
+            assertFalse(solutions.isEmpty(), engine.name());
+            for (final SudokuModel s : solutions) {
+                assertTrue(s.isCorrectlyFilled(), engine.name());
+            }
+        }
+    }
+
+    @Test
+    void testEnginesAgreeOnSolutionCounts() {
+        final Random random = new Random(12345L);
+        final SudokuModel sudoku = new SudokuModel(3, 3);
+        for (int i = 0; i < 50; i++) {
+            sudoku.fillBase();
+            final byte[] cells = sudoku.cellsAsArray();
+            for (int j = 0; j < 55; j++) {
+                cells[random.nextInt(cells.length)] = 0;
+            }
+            sudoku.loadFromArray(cells);
+
+            final Set<SudokuModel> expected =
+                    sudoku.solve(64, SudokuModel.SolverEngine.DANCING_LINKS, s -> {
+                    });
+            for (final SudokuModel.SolverEngine engine : new SudokuModel.SolverEngine[] {
+                    SudokuModel.SolverEngine.CONSTRAINT_PROPAGATION, SudokuModel.SolverEngine.PARALLEL}) {
+                final Set<SudokuModel> found = sudoku.solve(64, engine, s -> {
+                });
+                assertEquals(expected.size(), found.size(), engine.name());
+                if (expected.size() < 64) {
+                    assertEquals(expected, found, engine.name());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSolveIntoBufferDoesNotAllocate() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assumptions.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        final SudokuModel sudoku = new SudokuModel(3, 3);
+        sudoku.loadFromText("""
+                8.. ... ...
+                ..3 6.. ...
+                .7. .9. 2..
+                .5. ..7 ...
+                ... .45 7..
+                ... 1.. .3.
+                ..1 ... .68
+                ..8 5.. .1.
+                .9. ... 4..
+                """);
+        final byte[] puzzle = sudoku.cellsAsArray();
+        final byte[] solution = new byte[puzzle.length];
+
+        for (int i = 0; i < 200; i++) {
+            sudoku.loadFromArray(puzzle);
+            assertEquals(1, sudoku.solveInto(2, solution));
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+        int found = 0;
+        for (int i = 0; i < 200; i++) {
+            sudoku.loadFromArray(puzzle);
+            found += sudoku.solveInto(2, solution);
+        }
+        final long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertEquals(200, found);
+        sudoku.loadFromArray(solution);
+        assertTrue(sudoku.isCorrectlyFilled());
+        // small slack for the measurement call itself
+        assertTrue(allocated < 1024, "Allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void testFingerprintDistinguishesSolvedFields() {
+        final SudokuModel solver = new SudokuModel(3, 3);
+        solver.loadFromText("""
+                  926 571 483
+                  351 486 279
+                  874 923 516
+                  
+                  582 367 194
+                  149 258 367
+                  763 1.. 825
+                  
+                  238 7.. 651
+                  617 835 942
+                  495 612 738
+                """);
+
+        final Set<SudokuModel> solutions = solver.solve(Integer.MAX_VALUE);
+        assertEquals(2, solutions.size());
+        final SudokuModel[] pair = solutions.toArray(new SudokuModel[0]);
+        assertEquals(pair[0].cellsAsArray().length, pair[1].cellsAsArray().length);
+        Assertions.assertNotEquals(pair[0].fingerprint(), pair[1].fingerprint());
+        Assertions.assertNotEquals(pair[0].hashCode(), pair[1].hashCode());
+
+        final long fingerprint = pair[0].fingerprint();
+        final int value = pair[0].getCellValue(0, 0);
+        pair[0].setCellValue(0, 0, 0);
+        Assertions.assertNotEquals(fingerprint, pair[0].fingerprint());
+        pair[0].setCellValue(0, 0, value);
+        assertEquals(fingerprint, pair[0].fingerprint());
+        assertEquals(SudokuModel.fingerprint(pair[0].cellsAsArray()), fingerprint);
+    }
+
+    @Test
+    void testSolveStopsByDeadlineCancelAndInterrupt() {
+        for (final SudokuModel.SolverEngine engine : SudokuModel.SolverEngine.values()) {
+            final SudokuModel empty = new SudokuModel(3, 3);
+
+            final SudokuModel.SolveResult timedOut = empty.solve(Integer.MAX_VALUE, engine,
+                    SolveControl.withTimeout(Duration.ofMillis(100)), s -> {
+                    });
+            assertEquals(SudokuModel.SolveStatus.TIMED_OUT, timedOut.status(), engine.name());
+            timedOut.solutions().forEach(s -> assertTrue(s.isCorrectlyFilled()));
+
+            final SolveControl control = SolveControl.unlimited();
+            control.cancel();
+            assertEquals(SudokuModel.SolveStatus.CANCELLED,
+                    empty.solve(Integer.MAX_VALUE, engine, control, s -> {
+                    }).status(), engine.name());
+
+            Thread.currentThread().interrupt();
+            try {
+                assertEquals(SudokuModel.SolveStatus.CANCELLED,
+                        empty.solve(Integer.MAX_VALUE, engine, SolveControl.unlimited(), s -> {
+                        }).status(), engine.name());
+            } finally {
+                Thread.interrupted();
+            }
+
+            assertEquals(SudokuModel.SolveStatus.LIMIT_REACHED,
+                    empty.solve(3, engine, SolveControl.unlimited(), s -> {
+                    }).status(), engine.name());
+        }
+    }
+
+    @Test
+    void testGenerateStopsByCancel() {
+        final SudokuModel model = new SudokuModel(3, 3);
+        final SolveControl control = SolveControl.unlimited();
+        control.cancel();
+        assertEquals(SudokuModel.SolveStatus.CANCELLED, model.generate(22, control));
+        assertEquals(SudokuModel.SolveStatus.COMPLETED, model.generate(36, SolveControl.unlimited()));
+        assertEquals(1, model.solve(2).size());
+    }
+
+    @Test
+    void testFillRandomMakesCorrectGrids() {
+        final Random random = new Random(12345L);
+        for (int size = 2; size <= 5; size++) {
+            final Set<SudokuModel> grids = new HashSet<>();
+            for (int i = 0; i < 20; i++) {
+                final SudokuModel grid = new SudokuModel(size, size).fillRandom(random);
+                assertTrue(grid.isCorrectlyFilled(), grid.toString());
+                grids.add(grid);
+            }
+            assertTrue(grids.size() > 1);
+        }
+    }
+
+    @Test
+    void testGenerateMakesUniquePuzzlesWithRequestedClues() {
+        final SudokuModel model = new SudokuModel(3, 3);
+        for (final int clues : new int[] {47, 36, 32, 28, 22}) {
+            model.generate(clues);
+            final byte[] cells = model.cellsAsArray();
+            int filled = 0;
+            for (final byte cell : cells) {
+                if (cell != 0) {
+                    filled++;
+                }
+            }
+            assertEquals(clues, filled);
+            assertEquals(1, model.solve(2, SudokuModel.SolverEngine.DANCING_LINKS, s -> {
+            }).size());
+        }
+    }
+
+    @Test
+    void testParallelGenerateTakesFirstWinner() {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final SudokuModel model = new SudokuModel(3, 3);
+            assertEquals(SudokuModel.SolveStatus.COMPLETED,
+                    model.generate(22, executor, 4, SolveControl.unlimited()));
+            assertEquals(1, model.solve(2).size());
+
+            final SolveControl control = SolveControl.unlimited();
+            control.cancel();
+            assertEquals(SudokuModel.SolveStatus.CANCELLED, model.generate(22, executor, 4, control));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSeededGenerationIsReproducibleAcrossThreads() throws Exception {
+        final long baseSeed = 0xC0FFEEL;
+        final int puzzles = 16;
+        final String[] sequential = new String[puzzles];
+        for (int i = 0; i < puzzles; i++) {
+            final SudokuModel model = new SudokuModel(3, 3);
+            model.generate(28, SudokuModel.puzzleSeed(baseSeed, i));
+            sequential[i] = model.cellsAsText();
+        }
+
+        final String[] parallel = new String[puzzles];
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = puzzles - 1; i >= 0; i--) {
+                final int index = i;
+                futures.add(executor.submit(() -> {
+                    final SudokuModel model = new SudokuModel(3, 3);
+                    model.generate(28, SudokuModel.puzzleSeed(baseSeed, index));
+                    parallel[index] = model.cellsAsText();
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assertions.assertArrayEquals(sequential, parallel);
+        assertEquals(puzzles, new HashSet<>(Arrays.asList(sequential)).size());
+    }
 
-}
\ No newline at end of file
+}